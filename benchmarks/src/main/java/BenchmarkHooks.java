@@ -0,0 +1,126 @@
+//this class is the entry point of the JMH benchmarks into the solver's package-private API. It is compiled with the benchmarks, not with the
+//solver, so the solver's jar does not ship it: it is in the default package like the solver's classes, and the shaded benchmarks jar loads both
+//with the same class loader, so it can call their package-private members. The benchmarks' own package cannot import the default package, so
+//they look these methods up by name (with Class.getMethod(), since they are public) and call them through method handles. The solver's types
+//are passed as Object, so that the benchmarks can name every method's parameter types.
+//every hook calls the member it exposes directly, so renaming or changing a member the benchmarks use breaks the benchmarks' build, not a benchmark run
+public final class BenchmarkHooks {
+    private BenchmarkHooks(){
+    }
+
+
+    public static Object newSolver(int width, int height){
+        return new TetrisSolver(width, height);
+    }
+
+    public static void addPuzzleRow(Object solver, String row){
+        ((TetrisSolver) solver).addPuzzleRow(row);
+    }
+
+    public static int addPuzzlePiece(Object solver, String piece, int relativeFrequency){
+        return ((TetrisSolver) solver).addPuzzlePiece(piece, relativeFrequency);
+    }
+
+    public static int placePiece(Object solver, int pieceId, int lookahead){
+        return ((TetrisSolver) solver).placePiece(pieceId, lookahead);
+    }
+
+    public static boolean isDuplicateTetromino(Object solver, Object tetromino){
+        return ((TetrisSolver) solver).isDuplicateTetromino((Tetromino) tetromino);
+    }
+
+    public static Object createLookaheadSearch(Object solver){
+        return ((TetrisSolver) solver).createLookaheadSearch();
+    }
+
+    public static int gridPenalty(Object grid){
+        return TetrisSolver.gridPenalty((BitGrid) grid);
+    }
+
+    public static Object getGrid(Object solver){
+        return ((TetrisSolver) solver).getGrid();
+    }
+
+    public static Object getPuzzlePiece(Object solver, int pieceId){
+        return ((TetrisSolver) solver).getPuzzlePiece(pieceId);
+    }
+
+    public static void clearTranspositionTable(Object solver){
+        ((TetrisSolver) solver).clearTranspositionTable();
+    }
+
+    public static Object newTetromino(String[] pieceRows, int pieceId, int relativeFrequency, int gridWidth, int gridHeight){
+        return new Tetromino(pieceRows, pieceId, relativeFrequency, gridWidth, gridHeight);
+    }
+
+    public static int[][] rotatePiece(Object tetromino, int[][] piece){
+        return ((Tetromino) tetromino).rotatePiece(piece);
+    }
+
+    public static int[][] getPiece(Object tetromino){
+        return ((Tetromino) tetromino).getPiece();
+    }
+
+    public static Object copyGrid(Object grid){
+        return new BitGrid((BitGrid) grid);
+    }
+
+    public static void copyGridFrom(Object grid, Object gridToCopy){
+        ((BitGrid) grid).copyFrom((BitGrid) gridToCopy);
+    }
+
+    public static void fill(Object grid, int row, int col){
+        ((BitGrid) grid).fill(row, col);
+    }
+
+    public static int removeFullRows(Object grid, int[] removedRows){
+        return ((BitGrid) grid).removeFullRows(removedRows);
+    }
+
+    public static int[] getColumnHeights(Object grid){
+        return ((BitGrid) grid).getColumnHeights();
+    }
+
+    public static int[] getColumnCounts(Object grid){
+        return ((BitGrid) grid).getColumnCounts();
+    }
+
+    public static long[] getRows(Object grid){
+        return ((BitGrid) grid).getRows();
+    }
+
+    public static long[] getFullRowMask(Object grid){
+        return ((BitGrid) grid).getFullRowMask();
+    }
+
+    public static void setGrid(Object search, Object grid){
+        ((LookaheadSearch) search).setGrid((BitGrid) grid);
+    }
+
+    public static int generatePlacements(Object search, int pieceId, int ply){
+        return ((LookaheadSearch) search).generatePlacements(pieceId, ply);
+    }
+
+    public static Object newGridKernels(){
+        return new GridKernels();
+    }
+
+    //the SIMD kernels (null if the JVM was not started with the jdk.incubator.vector module)
+    public static Object vectorGridKernels(){
+        return GridKernels.vector();
+    }
+
+    public static long columnBounds(Object kernels, int[] columnHeights, int fromCol, int toCol, int[] bottomProfile, int[] supportProfile, int pieceHeight,
+                                    int gridHeight, int[] restingRows, int[] lowestValidRows, int[] alwaysValidRows, int[] highestValidRows){
+        return ((GridKernels) kernels).columnBounds(columnHeights, fromCol, toCol, bottomProfile, supportProfile, pieceHeight, gridHeight,
+                restingRows, lowestValidRows, alwaysValidRows, highestValidRows);
+    }
+
+    public static boolean isRowFull(Object kernels, long[] rows, int base, long[] fullRowMask, int fromWord, int toWord){
+        return ((GridKernels) kernels).isRowFull(rows, base, fullRowMask, fromWord, toWord);
+    }
+
+    public static long columnHoleDepthSum(Object kernels, int[] columnHeights, int[] columnCounts, int fromCol, int toCol){
+        return ((GridKernels) kernels).columnHoleDepthSum(columnHeights, columnCounts, fromCol, toCol);
+    }
+}
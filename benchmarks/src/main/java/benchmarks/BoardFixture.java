@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+//reproducible benchmark boards: a solver of a given size with a piece set added, whose bottom rows are filled with seeded random rows
+final class BoardFixture {
+    static final long DEFAULT_SEED = 20221117L;
+
+    final Object solver;
+    final Object initialGrid;   //copy of the solver's grid before any benchmark changes it
+    final int width;
+    final int height;
+    final int[] pieceIds;   //ids of the pieces of the set that fit in the grid
+
+    private BoardFixture(Object solver, int width, int height, int[] pieceIds){
+        this.solver = solver;
+        this.width = width;
+        this.height = height;
+        this.pieceIds = pieceIds;
+        initialGrid = Solver.copyGrid(Solver.getGrid(solver));
+    }
+
+
+    //method to build a fixture from a board size written as "<width>x<height>" (i.e., "10x20").
+    //A third of the board's rows (rounded down) are filled from the bottom, each with a random set of blocks that leaves at least one gap,
+    //and each piece is added with a random relative frequency from 1 to 5 (pieces that do not fit in the board are skipped)
+    static BoardFixture create(String board, PieceSet pieceSet, long seed){
+        String[] size = board.split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+        Random random = new Random(seed);
+        Object solver = Solver.newSolver(width, height);
+        List<Integer> pieceIds = new ArrayList<>();
+        for(String piece: pieceSet.pieces()){
+            try{
+                pieceIds.add(Solver.addPuzzlePiece(solver, piece, 1 + random.nextInt(5)));
+            }
+            catch(IllegalArgumentException e){   //the piece does not fit in the board
+            }
+        }
+        for(int row=0; row<height/3; row++){
+            Solver.addPuzzleRow(solver, randomRow(width, random));
+        }
+        return new BoardFixture(solver, width, height, pieceIds.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+
+    //method to put the solver's grid back to how it was when the fixture was created
+    void reset(){
+        Solver.copyGridFrom(Solver.getGrid(solver), initialGrid);
+    }
+
+
+    //method to create a random row with at least one block and at least one gap
+    private static String randomRow(int width, Random random){
+        char[] row = new char[width];
+        for(int col=0; col<width; col++){
+            row[col] = random.nextInt(4)==0 ? ' ' : '*';
+        }
+        int gap = random.nextInt(width);
+        row[gap] = ' ';
+        row[(gap + 1 + random.nextInt(width - 1)) % width] = '*';
+        return new String(row);
+    }
+}
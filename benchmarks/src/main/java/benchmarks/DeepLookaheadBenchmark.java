@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//benchmarks placePiece() at lookahead 2 and 3. The number of combinations grows exponentially with the lookahead, so these run on small boards (larger boards can be given with -p board=...).
+//every call starts from the same seeded board with an empty transposition table, and the placed piece cycles through the piece set
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeepLookaheadBenchmark {
+    @Param({"4x4", "6x6"})
+    public String board;
+
+    @Param({"TETROMINOES", "PENTOMINOES"})
+    public PieceSet pieceSet;
+
+    @Param({"2", "3"})
+    public int lookahead;
+
+    @Param({"20221117"})
+    public long seed;
+
+    private BoardFixture fixture;
+    private int nextPiece;
+    private int pieceId;
+
+    @Setup(Level.Trial)
+    public void createBoard(){
+        fixture = BoardFixture.create(board, pieceSet, seed);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetBoard(){
+        fixture.reset();
+        Solver.clearTranspositionTable(fixture.solver);
+        pieceId = fixture.pieceIds[nextPiece];
+        nextPiece = (nextPiece + 1) % fixture.pieceIds.length;
+    }
+
+    @Benchmark
+    public int placePiece(){
+        try{
+            return Solver.placePiece(fixture.solver, pieceId, lookahead);
+        }
+        catch(IllegalArgumentException e){   //the piece does not fit in the board
+            return Integer.MIN_VALUE;
+        }
+    }
+}
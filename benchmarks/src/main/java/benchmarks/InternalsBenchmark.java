@@ -0,0 +1,115 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//benchmarks of the operations placePiece() is made of, on the same seeded boards as PlacePieceBenchmark
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InternalsBenchmark {
+    @Param({"4x4", "10x20", "20x40"})
+    public String board;
+
+    @Param({"TETROMINOES", "PENTOMINOES"})
+    public PieceSet pieceSet;
+
+    @Param({"20221117"})
+    public long seed;
+
+    private BoardFixture fixture;
+    private Object search;   //LookaheadSearch whose working grid is the fixture's board
+    private Object[] pieces;
+    private Object workingGrid;   //grid that benchmarks overwrite
+    private Object gridWithFullRows;   //the fixture's board with its two bottom rows filled
+    private String[] firstPieceRows;
+    private int[][] firstPieceMatrix;
+    private Object newPiece;   //piece that is not a duplicate of any piece in the set
+
+    @Setup(Level.Trial)
+    public void createBoard(){
+        fixture = BoardFixture.create(board, pieceSet, seed);
+        search = Solver.createLookaheadSearch(fixture.solver);
+        Solver.setGrid(search, fixture.initialGrid);
+        pieces = new Object[fixture.pieceIds.length];
+        for(int i=0; i<pieces.length; i++){
+            pieces[i] = Solver.getPuzzlePiece(fixture.solver, fixture.pieceIds[i]);
+        }
+        workingGrid = Solver.copyGrid(fixture.initialGrid);
+        gridWithFullRows = Solver.copyGrid(fixture.initialGrid);
+        for(int row=0; row<2; row++){
+            for(int col=0; col<fixture.width; col++){
+                Solver.fill(gridWithFullRows, row, col);
+            }
+        }
+        firstPieceRows = pieceSet.pieces()[0].split("\n");
+        firstPieceMatrix = Solver.getPiece(pieces[0]);
+        newPiece = Solver.newTetromino("**\n*".split("\n"), pieces.length, 1, fixture.width, fixture.height);
+    }
+
+    //generating the placements of every piece of the set (previously fitPiece())
+    @Benchmark
+    public int fitPiece(){
+        int placements = 0;
+        for(int pieceId: fixture.pieceIds){
+            placements += Solver.generatePlacements(search, pieceId, 0);
+        }
+        return placements;
+    }
+
+    //clearing two full rows (includes copying the grid with the full rows into the working grid, which copyGrid() measures on its own)
+    @Benchmark
+    public int clearFullRows(){
+        Solver.copyGridFrom(workingGrid, gridWithFullRows);
+        return Solver.removeFullRows(workingGrid, null);
+    }
+
+    @Benchmark
+    public int gridPenalty(){
+        return Solver.gridPenalty(fixture.initialGrid);
+    }
+
+    //copying a grid into a new grid (previously deepCopyGrid())
+    @Benchmark
+    public Object deepCopyGrid(){
+        return Solver.copyGrid(fixture.initialGrid);
+    }
+
+    //copying a grid into an existing grid (how searches reuse their grids)
+    @Benchmark
+    public Object copyGrid(){
+        Solver.copyGridFrom(workingGrid, fixture.initialGrid);
+        return workingGrid;
+    }
+
+    @Benchmark
+    public int[][] tetrominoRotation(){
+        return Solver.rotatePiece(pieces[0], firstPieceMatrix);
+    }
+
+    //creating a piece (validating it and finding its rotations)
+    @Benchmark
+    public Object tetrominoConstruction(){
+        return Solver.newTetromino(firstPieceRows, 0, 1, fixture.width, fixture.height);
+    }
+
+    @Benchmark
+    public boolean isDuplicateTetromino(){
+        return Solver.isDuplicateTetromino(fixture.solver, newPiece);
+    }
+}
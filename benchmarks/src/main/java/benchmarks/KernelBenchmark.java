@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//benchmarks of the scalar and SIMD grid kernels (see GridKernels) per board width, on seeded boards whose bottom third is filled.
+//the forks add the jdk.incubator.vector module, so both kernels can be measured in the same run
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class KernelBenchmark {
+    @Param({"10x60", "64x60", "256x60", "1024x60", "4096x60"})
+    public String board;
+
+    @Param({"scalar", "vector"})
+    public String kernels;
+
+    @Param({"20221117"})
+    public long seed;
+
+    //the column profiles of the T tetromino's orientation "***\n * " (row 0 is the piece's bottom row)
+    private static final int[] T_BOTTOM_PROFILE = {1, 0, 1};
+    private static final int[] T_SUPPORT_PROFILE = {-1, 0, -1};
+
+    private Object gridKernels;
+    private BoardFixture fixture;
+    private int[] columnHeights;
+    private int[] columnCounts;
+    private long[] rows;
+    private long[] fullRowMask;
+    private int[] restingRows;
+    private int[] lowestValidRows;
+    private int[] alwaysValidRows;
+    private int[] highestValidRows;
+
+    @Setup(Level.Trial)
+    public void createBoard(){
+        gridKernels = kernels.equals("vector") ? Solver.vectorGridKernels() : Solver.newGridKernels();
+        if(gridKernels==null){
+            throw new IllegalStateException("The jdk.incubator.vector module is not present!");
+        }
+        fixture = BoardFixture.create(board, PieceSet.TETROMINOES, seed);
+        columnHeights = Solver.getColumnHeights(fixture.initialGrid);
+        columnCounts = Solver.getColumnCounts(fixture.initialGrid);
+        rows = Solver.getRows(fixture.initialGrid);
+        fullRowMask = Solver.getFullRowMask(fixture.initialGrid);
+        restingRows = new int[fixture.width];
+        lowestValidRows = new int[fixture.width];
+        alwaysValidRows = new int[fixture.width];
+        highestValidRows = new int[fixture.width];
+    }
+
+    //the bounds of the starting rows of every starting column of an orientation (the per-column part of generating its placements)
+    @Benchmark
+    public long columnBounds(){
+        return Solver.columnBounds(gridKernels, columnHeights, 0, fixture.width - T_BOTTOM_PROFILE.length + 1, T_BOTTOM_PROFILE, T_SUPPORT_PROFILE, 2,
+                fixture.height, restingRows, lowestValidRows, alwaysValidRows, highestValidRows);
+    }
+
+    //checking every filled row for being full (none of the fixture's rows are full, so each check stops at the row's first gap)
+    @Benchmark
+    public int fullRowCheck(){
+        int wordsPerRow = fullRowMask.length;
+        int fullRows = 0;
+        for(int row=0; row<fixture.height/3; row++){
+            if(Solver.isRowFull(gridKernels, rows, row*wordsPerRow, fullRowMask, 0, wordsPerRow)){
+                fullRows++;
+            }
+        }
+        return fullRows;
+    }
+
+    //the column part of the hole depth sum, which is recalculated for every column when rows are cleared
+    @Benchmark
+    public long holeDepthSum(){
+        return Solver.columnHoleDepthSum(gridKernels, columnHeights, columnCounts, 0, fixture.width);
+    }
+}
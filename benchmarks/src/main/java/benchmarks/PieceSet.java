@@ -0,0 +1,38 @@
+package benchmarks;
+
+//piece sets the benchmarks are run with (pieces are written the same way as for TetrisSolver's addPuzzlePiece())
+public enum PieceSet {
+    //the seven standard tetrominoes
+    TETROMINOES(
+            "****",
+            "**\n**",
+            "***\n *",
+            "*\n***",
+            "  *\n***",
+            "**\n **",
+            " **\n**"),
+    //the twelve free pentominoes
+    PENTOMINOES(
+            "*****",
+            " **\n**\n *",
+            "*\n*\n*\n**",
+            "**\n**\n*",
+            " *\n *\n**\n*",
+            "***\n *\n *",
+            "* *\n***",
+            "*\n*\n***",
+            "*\n**\n **",
+            " *\n***\n *",
+            " *\n**\n *\n *",
+            "**\n *\n **");
+
+    private final String[] pieces;
+
+    PieceSet(String... pieces){
+        this.pieces = pieces;
+    }
+
+    String[] pieces(){
+        return pieces.clone();
+    }
+}
@@ -0,0 +1,335 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+//the solver's classes are in the default package, which cannot be imported, so the benchmarks reach them through the public methods of the
+//BenchmarkHooks class compiled with the benchmarks in the default package (which pass the solver's types as Object). Every hook is a static final method handle constant, so the JIT compiles the
+//calls as direct calls. Only public methods are looked up, so a member the benchmarks use cannot be renamed without changing BenchmarkHooks
+final class Solver {
+    private static final Class<?> HOOKS = load("BenchmarkHooks");
+
+    private static final MethodHandle NEW_SOLVER = hook("newSolver", int.class, int.class);
+    private static final MethodHandle ADD_PUZZLE_ROW = hook("addPuzzleRow", Object.class, String.class);
+    private static final MethodHandle ADD_PUZZLE_PIECE = hook("addPuzzlePiece", Object.class, String.class, int.class);
+    private static final MethodHandle PLACE_PIECE = hook("placePiece", Object.class, int.class, int.class);
+    private static final MethodHandle IS_DUPLICATE_TETROMINO = hook("isDuplicateTetromino", Object.class, Object.class);
+    private static final MethodHandle CREATE_LOOKAHEAD_SEARCH = hook("createLookaheadSearch", Object.class);
+    private static final MethodHandle GRID_PENALTY = hook("gridPenalty", Object.class);
+    private static final MethodHandle GET_GRID = hook("getGrid", Object.class);
+    private static final MethodHandle GET_PUZZLE_PIECE = hook("getPuzzlePiece", Object.class, int.class);
+    private static final MethodHandle CLEAR_TRANSPOSITION_TABLE = hook("clearTranspositionTable", Object.class);
+
+    private static final MethodHandle NEW_TETROMINO = hook("newTetromino", String[].class, int.class, int.class, int.class, int.class);
+    private static final MethodHandle ROTATE_PIECE = hook("rotatePiece", Object.class, int[][].class);
+    private static final MethodHandle GET_PIECE = hook("getPiece", Object.class);
+
+    private static final MethodHandle COPY_GRID = hook("copyGrid", Object.class);
+    private static final MethodHandle COPY_GRID_FROM = hook("copyGridFrom", Object.class, Object.class);
+    private static final MethodHandle FILL = hook("fill", Object.class, int.class, int.class);
+    private static final MethodHandle REMOVE_FULL_ROWS = hook("removeFullRows", Object.class, int[].class);
+    private static final MethodHandle GET_COLUMN_HEIGHTS = hook("getColumnHeights", Object.class);
+    private static final MethodHandle GET_COLUMN_COUNTS = hook("getColumnCounts", Object.class);
+    private static final MethodHandle GET_ROWS = hook("getRows", Object.class);
+    private static final MethodHandle GET_FULL_ROW_MASK = hook("getFullRowMask", Object.class);
+
+    private static final MethodHandle SET_GRID = hook("setGrid", Object.class, Object.class);
+    private static final MethodHandle GENERATE_PLACEMENTS = hook("generatePlacements", Object.class, int.class, int.class);
+
+    private static final MethodHandle NEW_GRID_KERNELS = hook("newGridKernels");
+    private static final MethodHandle VECTOR_GRID_KERNELS = hook("vectorGridKernels");
+    private static final MethodHandle COLUMN_BOUNDS = hook("columnBounds", Object.class, int[].class, int.class, int.class, int[].class, int[].class,
+            int.class, int.class, int[].class, int[].class, int[].class, int[].class);
+    private static final MethodHandle IS_ROW_FULL = hook("isRowFull", Object.class, long[].class, int.class, long[].class, int.class, int.class);
+    private static final MethodHandle COLUMN_HOLE_DEPTH_SUM = hook("columnHoleDepthSum", Object.class, int[].class, int[].class, int.class, int.class);
+
+    private Solver(){
+    }
+
+
+    static Object newSolver(int width, int height){
+        try{
+            return (Object) NEW_SOLVER.invokeExact(width, height);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static void addPuzzleRow(Object solver, String row){
+        try{
+            ADD_PUZZLE_ROW.invokeExact(solver, row);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static int addPuzzlePiece(Object solver, String piece, int relativeFrequency){
+        try{
+            return (int) ADD_PUZZLE_PIECE.invokeExact(solver, piece, relativeFrequency);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static int placePiece(Object solver, int pieceId, int lookahead){
+        try{
+            return (int) PLACE_PIECE.invokeExact(solver, pieceId, lookahead);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static boolean isDuplicateTetromino(Object solver, Object tetromino){
+        try{
+            return (boolean) IS_DUPLICATE_TETROMINO.invokeExact(solver, tetromino);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static Object createLookaheadSearch(Object solver){
+        try{
+            return (Object) CREATE_LOOKAHEAD_SEARCH.invokeExact(solver);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static int gridPenalty(Object grid){
+        try{
+            return (int) GRID_PENALTY.invokeExact(grid);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static Object getGrid(Object solver){
+        try{
+            return (Object) GET_GRID.invokeExact(solver);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    //the piece added to a solver with id <pieceId>
+    static Object getPuzzlePiece(Object solver, int pieceId){
+        try{
+            return (Object) GET_PUZZLE_PIECE.invokeExact(solver, pieceId);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    //method to empty a solver's transposition table, so that repeated placePiece() calls on the same grid are not answered from the table
+    static void clearTranspositionTable(Object solver){
+        try{
+            CLEAR_TRANSPOSITION_TABLE.invokeExact(solver);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static Object newTetromino(String[] pieceRows, int pieceId, int relativeFrequency, int gridWidth, int gridHeight){
+        try{
+            return (Object) NEW_TETROMINO.invokeExact(pieceRows, pieceId, relativeFrequency, gridWidth, gridHeight);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static int[][] rotatePiece(Object tetromino, int[][] piece){
+        try{
+            return (int[][]) ROTATE_PIECE.invokeExact(tetromino, piece);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static int[][] getPiece(Object tetromino){
+        try{
+            return (int[][]) GET_PIECE.invokeExact(tetromino);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static Object copyGrid(Object grid){
+        try{
+            return (Object) COPY_GRID.invokeExact(grid);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static void copyGridFrom(Object grid, Object gridToCopy){
+        try{
+            COPY_GRID_FROM.invokeExact(grid, gridToCopy);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static void fill(Object grid, int row, int col){
+        try{
+            FILL.invokeExact(grid, row, col);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static int removeFullRows(Object grid, int[] removedRows){
+        try{
+            return (int) REMOVE_FULL_ROWS.invokeExact(grid, removedRows);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static void setGrid(Object search, Object grid){
+        try{
+            SET_GRID.invokeExact(search, grid);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static int generatePlacements(Object search, int pieceId, int ply){
+        try{
+            return (int) GENERATE_PLACEMENTS.invokeExact(search, pieceId, ply);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static int[] getColumnHeights(Object grid){
+        try{
+            return (int[]) GET_COLUMN_HEIGHTS.invokeExact(grid);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static int[] getColumnCounts(Object grid){
+        try{
+            return (int[]) GET_COLUMN_COUNTS.invokeExact(grid);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static long[] getRows(Object grid){
+        try{
+            return (long[]) GET_ROWS.invokeExact(grid);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static long[] getFullRowMask(Object grid){
+        try{
+            return (long[]) GET_FULL_ROW_MASK.invokeExact(grid);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static Object newGridKernels(){
+        try{
+            return (Object) NEW_GRID_KERNELS.invokeExact();
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    //the SIMD kernels (null if the JVM was not started with the jdk.incubator.vector module)
+    static Object vectorGridKernels(){
+        try{
+            return (Object) VECTOR_GRID_KERNELS.invokeExact();
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static long columnBounds(Object kernels, int[] columnHeights, int fromCol, int toCol, int[] bottomProfile, int[] supportProfile, int pieceHeight,
+                             int gridHeight, int[] restingRows, int[] lowestValidRows, int[] alwaysValidRows, int[] highestValidRows){
+        try{
+            return (long) COLUMN_BOUNDS.invokeExact(kernels, columnHeights, fromCol, toCol, bottomProfile, supportProfile, pieceHeight, gridHeight,
+                    restingRows, lowestValidRows, alwaysValidRows, highestValidRows);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static boolean isRowFull(Object kernels, long[] rows, int base, long[] fullRowMask, int fromWord, int toWord){
+        try{
+            return (boolean) IS_ROW_FULL.invokeExact(kernels, rows, base, fullRowMask, fromWord, toWord);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+    static long columnHoleDepthSum(Object kernels, int[] columnHeights, int[] columnCounts, int fromCol, int toCol){
+        try{
+            return (long) COLUMN_HOLE_DEPTH_SUM.invokeExact(kernels, columnHeights, columnCounts, fromCol, toCol);
+        }
+        catch(Throwable e){
+            throw rethrow(e);
+        }
+    }
+
+
+    private static Class<?> load(String className){
+        try{
+            return Class.forName(className);
+        }
+        catch(ClassNotFoundException e){
+            throw new IllegalStateException("Class " + className + " is not on the classpath!", e);
+        }
+    }
+
+    private static MethodHandle hook(String name, Class<?>... parameterTypes){
+        try{
+            return MethodHandles.publicLookup().unreflect(HOOKS.getMethod(name, parameterTypes));
+        }
+        catch(ReflectiveOperationException e){
+            throw new IllegalStateException("Benchmark hook " + name + " not found!", e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e){
+        if(e instanceof RuntimeException){
+            return (RuntimeException) e;
+        }
+        if(e instanceof Error){
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of the bitboard engine (BitGrid, the incremental penalty sums, the column-profile placement generator, the single-pass row clearing and the
+//depth-first lookahead search) against the baseline char[][] solver (see ReferenceSolver): on seeded random games at lookahead 0, 1 and 2, every
+//step must find the same placements, return the same value (or the same exception), clear the same rows and leave the same grid and penalty
+class BaselineEquivalenceTest {
+    private static final String[] PIECES = {"****", "**\n**", "***\n *", "*\n***", "***\n*", "**\n **", " **\n**", "*", "**", "***\n* *", "*\n*\n*\n*\n*"};
+
+    @Test
+    void gamesWithoutLookaheadMatchBaseline(){
+        Random random = new Random(101);
+        for(int board=0; board<60; board++){
+            int width = 3 + random.nextInt(board % 6==0 ? 40 : 10);
+            assertSameGames(random, width, 5 + random.nextInt(16), PIECES, 0, 60);
+        }
+    }
+
+
+    @Test
+    void gamesWithLookaheadOfOneMatchBaseline(){
+        Random random = new Random(102);
+        for(int board=0; board<16; board++){
+            assertSameGames(random, 4 + random.nextInt(4), 6 + random.nextInt(6), SolverGames.TETROMINOES, 1, 25);
+        }
+    }
+
+
+    @Test
+    void gamesWithLookaheadOfTwoMatchBaseline(){
+        Random random = new Random(103);
+        for(int board=0; board<8; board++){
+            assertSameGames(random, 4 + random.nextInt(2), 5 + random.nextInt(4), new String[]{"****", "**\n**", "***\n *", "*"}, 2, 12);
+        }
+    }
+
+
+    //method to play a game of <steps> random steps (a placement of a random piece, or now and then a random row) on a <width>x<height> grid
+    //with the baseline solver and TetrisSolver, checking after every step that both are in the same state
+    private static void assertSameGames(Random random, int width, int height, String[] pieces, int lookahead, int steps){
+        TetrisSolver solver = new TetrisSolver(width, height);
+        ReferenceSolver reference = new ReferenceSolver(width, height);
+        List<Integer> pieceIds = new ArrayList<>();
+        for(String piece: pieces){
+            int relativeFrequency = 1 + random.nextInt(5);
+            String added = SolverGames.outcome(() -> solver.addPuzzlePiece(piece, relativeFrequency));
+            if(added.startsWith("value")){   //pieces that do not fit in the grid are rejected
+                pieceIds.add(reference.addPuzzlePiece(piece, relativeFrequency));
+            }
+        }
+        String game = width + "x" + height + " lookahead " + lookahead;
+        for(int step=0; step<steps; step++){
+            if(random.nextInt(6)==0){
+                String row = SolverGames.randomRow(random, width);
+                assertEquals(SolverGames.outcome(() -> addRow(reference, row)), SolverGames.outcome(() -> SolverGames.addRow(solver, row)), game);
+            }
+            else{
+                int pieceId = pieceIds.get(random.nextInt(pieceIds.size()));
+                assertEquals(reference.placements(pieceId), placements(solver, pieceId), game + " step " + step);
+                String expected = SolverGames.outcome(() -> reference.placePiece(pieceId, lookahead));
+                assertEquals(expected, SolverGames.outcome(() -> solver.placePiece(pieceId, lookahead)), game + " step " + step);
+                if(expected.startsWith("exception")){
+                    break;   //game over
+                }
+                assertEquals(reference.getLastRowsCleared(), solver.getLastRowsCleared(), game + " step " + step);
+            }
+            assertEquals(reference.showPuzzle(), solver.showPuzzle(), game + " step " + step);
+            assertEquals(reference.getGridPenalty(), TetrisSolver.gridPenalty(solver.getGrid()), game + " step " + step);
+        }
+    }
+
+
+    //the placements of a piece in the solver's grid in the form ReferenceSolver's placements() gives them
+    private static List<List<Integer>> placements(TetrisSolver solver, int pieceId){
+        List<List<Integer>> placements = new ArrayList<>();
+        solver.visitPlacements(pieceId, placement -> placements.add(List.of(solver.getPlacementRotation(placement),
+                TetrisSolver.getPlacementRow(placement), TetrisSolver.getPlacementColumn(placement))));
+        return placements;
+    }
+
+
+    private static int addRow(ReferenceSolver reference, String row){
+        reference.addPuzzleRow(row);
+        return 0;
+    }
+}
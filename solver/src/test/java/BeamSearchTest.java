@@ -0,0 +1,9 @@
+import org.junit.jupiter.api.*;
+
+//tests of the beam search overload of placePiece(): a beam wide enough to keep every partial combination is the exhaustive search
+class BeamSearchTest {
+    @Test
+    void wideBeamMatchesExhaustiveSearch(){
+        SolverGames.assertSameGames(solver -> {}, (solver, pieceId, lookahead) -> solver.placePiece(pieceId, lookahead, Integer.MAX_VALUE));
+    }
+}
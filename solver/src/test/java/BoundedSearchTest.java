@@ -0,0 +1,19 @@
+import org.junit.jupiter.api.*;
+
+//differential tests of the branch-and-bound lookahead search (setLookaheadPruning()): it skips subtrees that cannot beat the incumbent, so it must
+//play the same games as the exhaustive search, with and without the transposition table
+class BoundedSearchTest {
+    @Test
+    void pruningMatchesExhaustiveSearch(){
+        SolverGames.assertSameGames(solver -> solver.setLookaheadPruning(true), TetrisSolver::placePiece);
+    }
+
+
+    @Test
+    void pruningWithoutTranspositionTableMatchesExhaustiveSearch(){
+        SolverGames.assertSameGames(solver -> {
+            solver.setTranspositionTableSize(0);
+            solver.setLookaheadPruning(true);
+        }, TetrisSolver::placePiece);
+    }
+}
@@ -0,0 +1,21 @@
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of placePieceWithinBudget(): with a budget that never runs out, the iterative deepening completes every lookahead, so it must play the same
+//games as the exhaustive search, and its deeper searches are pruned against the previous search's best placement
+class BudgetedSearchTest {
+    @Test
+    void unlimitedBudgetMatchesExhaustiveSearch(){
+        long[] prunedNodes = new long[1];
+        SolverGames.assertSameGames(solver -> {}, (solver, pieceId, lookahead) -> {
+            int value = solver.placePieceWithinBudget(pieceId, lookahead, Long.MAX_VALUE / 4);
+            assertTrue(solver.getCompletedLookahead()<=lookahead);
+            prunedNodes[0] += solver.getPrunedNodeCount();
+            return value;
+        });
+        assertTrue(prunedNodes[0]>0);   //the deeper searches are pruned against the best placement of the previous search
+        SolverGames.assertSameGames(solver -> solver.setTranspositionTableSize(0),
+                (solver, pieceId, lookahead) -> solver.placePieceWithinBudget(pieceId, lookahead, Long.MAX_VALUE / 4));
+    }
+}
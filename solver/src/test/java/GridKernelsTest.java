@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+//differential tests of the SIMD kernels against the scalar kernels on random inputs (the test JVM runs with the jdk.incubator.vector module,
+//see solver/pom.xml). Widths and ranges are chosen so that both whole vectors and the scalar tails are exercised
+class GridKernelsTest {
+    private static final int INPUTS = 20_000;
+
+    private final GridKernels scalar = new GridKernels();
+    private final GridKernels vector = GridKernels.vector();
+
+    @BeforeEach
+    void requireVectorModule(){
+        assumeTrue(vector!=null, "jdk.incubator.vector is not present");
+    }
+
+
+    @Test
+    void columnBoundsMatchScalarKernel(){
+        Random random = new Random(22);
+        for(int input=0; input<INPUTS; input++){
+            int pieceWidth = 1 + random.nextInt(5);
+            int pieceHeight = 1 + random.nextInt(5);
+            int gridWidth = pieceWidth + random.nextInt(70);
+            int gridHeight = pieceHeight + random.nextInt(100);
+            int[] columnHeights = new int[gridWidth];
+            for(int col=0; col<gridWidth; col++){
+                columnHeights[col] = random.nextInt(gridHeight + 1);
+            }
+            int[] bottomProfile = new int[pieceWidth];
+            int[] supportProfile = new int[pieceWidth];
+            for(int x=0; x<pieceWidth; x++){
+                bottomProfile[x] = random.nextInt(pieceHeight);
+                supportProfile[x] = random.nextInt(3)==0 ? random.nextInt(pieceHeight) : -1;
+            }
+            int fromCol = random.nextInt(gridWidth - pieceWidth + 1);
+            int toCol = fromCol + random.nextInt(gridWidth - pieceWidth + 2 - fromCol);
+            int[][] expected = new int[4][gridWidth];
+            int[][] actual = new int[4][gridWidth];
+            long expectedBounds = scalar.columnBounds(columnHeights, fromCol, toCol, bottomProfile, supportProfile, pieceHeight, gridHeight,
+                    expected[0], expected[1], expected[2], expected[3]);
+            long actualBounds = vector.columnBounds(columnHeights, fromCol, toCol, bottomProfile, supportProfile, pieceHeight, gridHeight,
+                    actual[0], actual[1], actual[2], actual[3]);
+            assertEquals(expectedBounds, actualBounds);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+
+    @Test
+    void rowChecksMatchScalarKernel(){
+        Random random = new Random(23);
+        for(int input=0; input<INPUTS; input++){
+            int words = 1 + random.nextInt(40);
+            long[] fullRowMask = new long[words];
+            Arrays.fill(fullRowMask, -1L);
+            fullRowMask[words-1] = -1L >>> random.nextInt(64);
+            long[] rows = new long[words*3];
+            int base = words*random.nextInt(3);
+            for(int word=0; word<rows.length; word++){
+                switch(random.nextInt(3)){   //mostly full or empty words, so full and empty rows come up often
+                    case 0: rows[word] = fullRowMask[word % words]; break;
+                    case 1: rows[word] = 0; break;
+                    default: rows[word] = random.nextLong() & fullRowMask[word % words];
+                }
+            }
+            if(random.nextBoolean()){
+                System.arraycopy(random.nextBoolean() ? fullRowMask : new long[words], 0, rows, base, words);
+                rows[base + random.nextInt(words)] ^= random.nextInt(4)==0 ? 1L : 0;
+            }
+            int fromWord = random.nextInt(words);
+            int toWord = fromWord + random.nextInt(words + 1 - fromWord);
+            assertEquals(scalar.isRowFull(rows, base, fullRowMask, fromWord, toWord), vector.isRowFull(rows, base, fullRowMask, fromWord, toWord));
+            assertEquals(scalar.isRowEmpty(rows, base, fromWord, toWord), vector.isRowEmpty(rows, base, fromWord, toWord));
+        }
+    }
+
+
+    @Test
+    void holeDepthSumMatchesScalarKernel(){
+        Random random = new Random(24);
+        for(int input=0; input<INPUTS; input++){
+            int gridWidth = 1 + random.nextInt(70);
+            int gridHeight = random.nextInt(4)==0 ? 200_000 : 1 + random.nextInt(100);   //tall grids overflow an int sum
+            int[] columnHeights = new int[gridWidth];
+            int[] columnCounts = new int[gridWidth];
+            for(int col=0; col<gridWidth; col++){
+                columnHeights[col] = random.nextInt(gridHeight + 1);
+                columnCounts[col] = columnHeights[col]==0 ? 0 : 1 + random.nextInt(columnHeights[col]);
+            }
+            int fromCol = random.nextInt(gridWidth + 1);
+            int toCol = fromCol + random.nextInt(gridWidth + 1 - fromCol);
+            assertEquals(scalar.columnHoleDepthSum(columnHeights, columnCounts, fromCol, toCol), vector.columnHoleDepthSum(columnHeights, columnCounts, fromCol, toCol));
+        }
+    }
+}
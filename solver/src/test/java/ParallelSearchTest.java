@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//differential tests of the fork-join lookahead search (setSearchParallelism()): each initial placement's result is found exactly, so the parallel
+//search must play the same games as the sequential exhaustive search
+class ParallelSearchTest {
+    @Test
+    void parallelSearchMatchesExhaustiveSearch(){
+        SolverGames.assertSameGames(solver -> solver.setSearchParallelism(4), TetrisSolver::placePiece);
+    }
+
+
+    @Test
+    void parallelSearchWithoutTranspositionTableMatchesExhaustiveSearch(){
+        SolverGames.assertSameGames(solver -> {
+            solver.setTranspositionTableSize(0);
+            solver.setSearchParallelism(3);
+        }, TetrisSolver::placePiece);
+    }
+
+
+    @Test
+    void parallelSearchMatchesExhaustiveSearchAfterPiecesAndTableChange(){
+        //the search threads reuse their searches between calls, so they must start over with new pieces or a new table
+        Random random = new Random(4);
+        for(int board=0; board<SolverGames.BOARDS/2; board++){
+            TetrisSolver exhaustive = SolverGames.createSolver(6, 10, new String[]{"****", "**\n**"}, new Random(board));
+            exhaustive.setTranspositionTableSize(0);
+            TetrisSolver parallel = SolverGames.createSolver(6, 10, new String[]{"****", "**\n**"}, new Random(board));
+            parallel.setSearchParallelism(3);
+            for(int step=0; step<SolverGames.STEPS; step++){
+                if(step==10){
+                    exhaustive.addPuzzlePiece("***\n *", 2);
+                    parallel.addPuzzlePiece("***\n *", 2);
+                }
+                if(step==20){
+                    parallel.setTranspositionTableSize(100);
+                }
+                int pieceId = random.nextInt(exhaustive.getPuzzlePieceCount());
+                String expected = SolverGames.outcome(() -> exhaustive.placePiece(pieceId, 1));
+                assertEquals(expected, SolverGames.outcome(() -> parallel.placePiece(pieceId, 1)), "board " + board + " step " + step);
+                assertEquals(exhaustive.showPuzzle(), parallel.showPuzzle());
+                if(expected.startsWith("exception")){
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of the placement enumeration (PlacementSpliterator and the solver's placements() API) and of the placement bounds they share with the
+//search: on random boards (with holes, overhangs and floating blocks) every enumeration must give generatePlacements()' placements in its
+//order, and those must be the placements a cell-by-cell check of every starting coordinate finds (which does not use GridKernels, so the
+//vector kernels the test JVM runs with are checked end to end)
+class PlacementSpliteratorTest {
+    private static final String[] PIECES = {"****", "**\n**", "***\n *", "*\n***", "**\n **", "*", "***\n* *", "*\n*\n*\n*\n*"};
+    private static final int BOARDS = 400;
+
+    @Test
+    void enumerationsMatchGeneratedPlacements(){
+        Random random = new Random(23);
+        for(int board=0; board<BOARDS; board++){
+            int width = 4 + random.nextInt(board % 4==0 ? 150 : 12);
+            int height = 5 + random.nextInt(20);
+            TetrisSolver solver = SolverGames.createSolver(width, height, PIECES, random);
+            PieceCatalog catalog = solver.getPieceCatalog();
+            BitGrid grid = randomGrid(random, width, height);
+            LookaheadSearch search = new LookaheadSearch(catalog, null, grid);
+            List<Long> allPlacements = new ArrayList<>();
+            for(int pieceId=0; pieceId<catalog.getPieceCount(); pieceId++){
+                int first = catalog.getFirstOrientation(pieceId);
+                int end = first + catalog.getOrientationCount(pieceId);
+                long[] expected = new long[search.generatePlacements(pieceId, 0)];
+                for(int i=0; i<expected.length; i++){
+                    expected[i] = search.getPlacement(0, i);
+                    allPlacements.add(expected[i]);
+                }
+                assertArrayEquals(cellByCellPlacements(grid, catalog, first, end), expected, "board " + board + " piece " + pieceId);
+                assertArrayEquals(expected, StreamSupport.longStream(new PlacementSpliterator(grid, catalog, first, end), false).toArray());
+                assertArrayEquals(expected, StreamSupport.longStream(new PlacementSpliterator(grid, catalog, first, end), true).toArray());
+            }
+            long[] everyPlacement = allPlacements.stream().mapToLong(Long::longValue).toArray();
+            int total = catalog.getTotalOrientations();
+            assertArrayEquals(everyPlacement, StreamSupport.longStream(new PlacementSpliterator(grid, catalog, 0, total), true).toArray());
+            assertEquals(everyPlacement.length, splitFully(new PlacementSpliterator(grid, catalog, 0, total)));
+        }
+    }
+
+
+    @Test
+    void solverPlacementsMatchGeneratedPlacements(){
+        Random random = new Random(24);
+        for(int board=0; board<BOARDS/4; board++){
+            int width = 4 + random.nextInt(10);
+            TetrisSolver solver = SolverGames.createSolver(width, 12, PIECES, random);
+            for(int step=0; step<10; step++){
+                if(random.nextInt(3)==0){
+                    SolverGames.outcome(() -> {
+                        solver.addPuzzleRow(SolverGames.randomRow(random, width));
+                        return 0;
+                    });
+                }
+                else if(SolverGames.outcome(() -> solver.placePiece(random.nextInt(PIECES.length), 0)).startsWith("exception")){
+                    break;
+                }
+            }
+            int pieceId = random.nextInt(PIECES.length);
+            long[] placements = solver.placements(pieceId).toArray();
+            assertArrayEquals(placements, solver.placements(pieceId).parallel().toArray());
+            for(long placement: placements){
+                assertEquals(pieceId, solver.getPlacementPiece(placement));
+                assertTrue(solver.getPlacementRotation(placement)<solver.getPieceCatalog().getOrientationCount(pieceId));
+            }
+            int[] visited = new int[1];
+            boolean visitedAll = solver.visitPlacements(pieceId, placement -> ++visited[0]<3);   //stops at the third placement
+            assertEquals(placements.length<=3 && (placements.length<3 || visitedAll), visitedAll);
+            assertEquals(Math.min(3, placements.length), visited[0]);
+            assertEquals(placements.length, solver.placements().filter(placement -> solver.getPlacementPiece(placement)==pieceId).count());
+        }
+    }
+
+
+    //method to create a grid with random blocks (so it has holes, overhangs and blocks above empty rows)
+    private static BitGrid randomGrid(Random random, int width, int height){
+        BitGrid grid = new BitGrid(width, height);
+        int filledRows = random.nextInt(height);
+        double density = random.nextDouble();
+        for(int row=0; row<filledRows; row++){
+            for(int col=0; col<width; col++){
+                if(random.nextDouble()<density * (filledRows - row) / filledRows){
+                    grid.fill(row, col);
+                }
+            }
+        }
+        return grid;
+    }
+
+
+    //method to find the placements of orientations from ... to-1 by checking every starting coordinate: the piece fits in the grid, does not
+    //overlap existing blocks and does not float (see PlacementBounds' isPlacementValid())
+    private static long[] cellByCellPlacements(BitGrid grid, PieceCatalog catalog, int from, int to){
+        List<Long> placements = new ArrayList<>();
+        for(int orientation=from; orientation<to; orientation++){
+            int pieceHeight = catalog.getHeight(orientation);
+            int[] supportProfile = catalog.getSupportProfile(orientation);
+            for(int row=0; row<=grid.getHeight() - pieceHeight; row++){
+                for(int col=0; col<=grid.getWidth() - catalog.getWidth(orientation); col++){
+                    boolean supported = false;
+                    for(int x=0; x<supportProfile.length; x++){
+                        int columnHeight = grid.getColumnHeight(col + x);
+                        supported |= row + pieceHeight - 1>=columnHeight && (row<=columnHeight || supportProfile[x]!=-1);
+                    }
+                    if(supported && !grid.overlaps(catalog.getMask(orientation), row, col)){
+                        placements.add(LookaheadSearch.packPlacement(orientation, row, col));
+                    }
+                }
+            }
+        }
+        return placements.stream().mapToLong(Long::longValue).toArray();
+    }
+
+
+    //method to split a spliterator until it cannot be split anymore and count the placements of all the splits
+    private static long splitFully(Spliterator.OfLong spliterator){
+        Spliterator.OfLong prefix = spliterator.trySplit();
+        long count = prefix==null ? 0 : splitFully(prefix);
+        if(prefix==null){
+            long[] remaining = new long[1];
+            spliterator.forEachRemaining((long placement) -> remaining[0]++);
+            return remaining[0];
+        }
+        return count + splitFully(spliterator);
+    }
+}
@@ -0,0 +1,39 @@
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of placePieceWithPreview(): an empty preview is the search over every piece, and with a single piece the only possible preview is that piece
+class PreviewSearchTest {
+    @Test
+    void emptyPreviewMatchesExhaustiveSearch(){
+        SolverGames.assertSameGames(solver -> {}, (solver, pieceId, lookahead) -> solver.placePieceWithPreview(pieceId, new int[0], lookahead));
+    }
+
+
+    @Test
+    void previewOfEveryPieceMatchesExhaustiveSearchOfOnePiece(){
+        Random random = new Random(7);
+        for(int board=0; board<SolverGames.BOARDS; board++){
+            TetrisSolver exhaustive = new TetrisSolver(5, 9);
+            TetrisSolver previewed = new TetrisSolver(5, 9);
+            for(TetrisSolver solver: new TetrisSolver[]{exhaustive, previewed}){
+                solver.addPuzzlePiece("***\n *", 3);
+                solver.setTranspositionTableSize(0);
+            }
+            for(int step=0; step<SolverGames.STEPS; step++){
+                String expected = SolverGames.outcome(() -> exhaustive.placePiece(0, 2));
+                assertEquals(expected, SolverGames.outcome(() -> previewed.placePieceWithPreview(0, new int[]{0, 0}, 2)));
+                assertEquals(exhaustive.showPuzzle(), previewed.showPuzzle());
+                if(expected.startsWith("exception")){
+                    break;
+                }
+                if(random.nextInt(5)==0){
+                    String row = SolverGames.randomRow(random, 5);
+                    assertEquals(SolverGames.outcome(() -> SolverGames.addRow(exhaustive, row)), SolverGames.outcome(() -> SolverGames.addRow(previewed, row)));
+                }
+            }
+        }
+    }
+}
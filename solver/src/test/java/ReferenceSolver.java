@@ -0,0 +1,450 @@
+import java.util.*;
+
+//the solver as it was before the bitboard engine (the char[][] grid, the cell-by-cell fitPiece() and the breadth-first lookahead over every
+//combination), kept as the reference the engine is compared against (see BaselineEquivalenceTest). The algorithms are the baseline's, unchanged
+//except that the combinations are kept in insertion order (the baseline's HashMap made the choice between equally valued combinations depend on
+//hash codes) and that the rows cleared by the last placement and the placements of a piece can be read back
+class ReferenceSolver {
+    private int height;
+    private int width;
+    private String checkEmptyRow;
+    private String checkFullRow;
+    private Map<Integer, ReferencePiece> puzzlePieces;
+    private char[][] grid;
+    private int lastRowsCleared;   //rows cleared by the last placePiece() call
+
+    ReferenceSolver(int width, int height){
+        if(width<1 || height<1){
+            throw new IllegalArgumentException("Illegal dimension (height or width less than 1)!");
+        }
+        this.height = height;
+        this.width = width;
+        grid = new char[height][width];
+        for(int row=0; row<height; row++){
+            for(int col=0; col<width; col++){
+                grid[row][col] = ' ';
+            }
+        }
+        checkEmptyRow = " ".repeat(width);
+        checkFullRow = "*".repeat(width);
+        puzzlePieces = new HashMap<>();
+    }
+
+
+    String showPuzzle(){
+        String puzzleStr = "";
+        for(int row=0; row<height; row++){
+            String rowStr = "";
+            for(int col=width-1; col>=0; col--){
+                rowStr += grid[row][col];
+            }
+            if(rowStr.equals(checkEmptyRow)){
+                break;
+            }
+            puzzleStr += rowStr + "\n";
+        }
+        if(puzzleStr.equals("")){
+            return puzzleStr;
+        }
+        puzzleStr = new StringBuilder(puzzleStr).reverse().toString();
+        return puzzleStr.substring(1);
+    }
+
+
+    void addPuzzleRow(String nextRow){
+        if(nextRow==null){
+            throw new IllegalArgumentException("Next row is null!");
+        }
+        if(nextRow.length()!=width){
+            throw new IllegalArgumentException("Next row does not match grid width!");
+        }
+        if(nextRow.equals(checkEmptyRow)){
+            throw new IllegalArgumentException("Next row is empty row (invalid)!");
+        }
+        if(nextRow.equals(checkFullRow)){
+            throw new IllegalArgumentException("Next row is full row (invalid)!");
+        }
+        int nextUsableRowInGrid = topRowInGrid(grid);
+        if(nextUsableRowInGrid>=height){
+            throw new IllegalArgumentException("Grid's top row already full (cannot add another row to current configuration!");
+        }
+        for(int col=0; col<width; col++){
+            if(nextRow.charAt(col)!=' '){
+                grid[nextUsableRowInGrid][col] = '*';
+            }
+        }
+    }
+
+
+    private int topRowInGrid(char[][] currGrid){
+        for(int row=height-1; row>=0; row--){
+            for(int col=0; col<width; col++){
+                if(currGrid[row][col]!=' '){
+                    return row + 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+
+    //method to add a piece (the pieces added to the reference must be valid and distinct, their validation is tested on TetrisSolver)
+    int addPuzzlePiece(String piece, int relativeFrequency){
+        ReferencePiece newPiece = new ReferencePiece(piece.split("\n"), puzzlePieces.size(), relativeFrequency, width, height);
+        puzzlePieces.put(puzzlePieces.size(), newPiece);
+        return newPiece.pieceId;
+    }
+
+
+    int placePiece(int pieceId, int lookahead){
+        if(!puzzlePieces.containsKey(pieceId)){
+            throw new IllegalArgumentException("PieceId does not exist!");
+        }
+        if(lookahead<0){
+            throw new IllegalArgumentException("Lookahead is negative (invalid)!");
+        }
+        List<Placement> initialPlacements = new ArrayList<>();
+        for(int[][] pieceOrientation: puzzlePieces.get(pieceId).pieceOrientations){
+            initialPlacements.addAll(fitPiece(pieceOrientation, grid, pieceId));
+        }
+        if(initialPlacements.isEmpty()){
+            throw new IllegalArgumentException("GAME OVER: Cannot fit piece placed into current grid configuration!");
+        }
+        if(lookahead==0){
+            Placement best = initialPlacements.get(0);
+            int bestValue = best.placementValue - gridPenalty(best.gridAfterPlacement);
+            for(Placement placement: initialPlacements){
+                int placementValue = placement.placementValue - gridPenalty(placement.gridAfterPlacement);
+                if(placementValue>bestValue){
+                    bestValue = placementValue;
+                    best = placement;
+                }
+            }
+            grid = best.gridAfterPlacement;
+            lastRowsCleared = best.rowsCleared;
+            return bestValue;
+        }
+        List<List<Placement>> lookaheadCombinations = new ArrayList<>();
+        for(Placement placement: initialPlacements){
+            lookaheadCombinations.add(new ArrayList<>(List.of(placement)));
+        }
+        for(int counter=1; counter<=lookahead; counter++){
+            List<List<Placement>> nextPlacementCombinations = feedForward(lookaheadCombinations, counter);
+            if(nextPlacementCombinations.isEmpty()){   //no piece fits after any combination, so the combinations end here
+                break;
+            }
+            lookaheadCombinations = nextPlacementCombinations;
+        }
+        List<Placement> bestCombination = findBestLookahead(lookaheadCombinations);
+        grid = bestCombination.get(0).gridAfterPlacement;
+        lastRowsCleared = bestCombination.get(0).rowsCleared;
+        return bestCombination.get(0).placementValue - gridPenalty(grid);
+    }
+
+
+    int getLastRowsCleared(){
+        return lastRowsCleared;
+    }
+
+
+    //the penalty of the current grid
+    int getGridPenalty(){
+        return gridPenalty(grid);
+    }
+
+
+    //the placements of a piece in the current grid as {orientation index, starting row, starting column}, in the order fitPiece() finds them
+    List<List<Integer>> placements(int pieceId){
+        List<List<Integer>> placements = new ArrayList<>();
+        List<int[][]> orientations = puzzlePieces.get(pieceId).pieceOrientations;
+        for(int k=0; k<orientations.size(); k++){
+            for(Placement placement: fitPiece(orientations.get(k), grid, pieceId)){
+                placements.add(List.of(k, placement.startingY, placement.startingX));
+            }
+        }
+        return placements;
+    }
+
+
+    private List<Placement> fitPiece(int[][] piece, char[][] currGrid, int pieceId){
+        int pieceHeight = piece.length;
+        int pieceWidth = piece[0].length;
+        List<Placement> possiblePlacements = new ArrayList<>();
+        for(int row=0; row<height; row++){
+            for(int col=0; col<width; col++){
+                if(pieceHeight>height-row || pieceWidth>width-col){
+                    continue;
+                }
+                boolean overlapsExistingBlocks = false;
+                for(int y=0; y<pieceHeight && !overlapsExistingBlocks; y++){
+                    for(int x=0; x<pieceWidth; x++){
+                        if(piece[y][x]==1 && currGrid[row+y][col+x]=='*'){
+                            overlapsExistingBlocks = true;
+                            break;
+                        }
+                    }
+                }
+                if(overlapsExistingBlocks){
+                    continue;
+                }
+                if(isPlacementValid(piece, row, col, deepCopyGrid(currGrid))){
+                    possiblePlacements.add(findPlacementValue(piece, row, col, deepCopyGrid(currGrid), pieceId));
+                }
+            }
+        }
+        return possiblePlacements;
+    }
+
+
+    private List<List<Placement>> feedForward(List<List<Placement>> lookaheadCombinations, int counter){
+        List<List<Placement>> nextPlacementCombinations = new ArrayList<>();
+        for(List<Placement> existingCombination: lookaheadCombinations){
+            for(int j=0; j<puzzlePieces.size(); j++){
+                ReferencePiece nextPiece = puzzlePieces.get(j);
+                for(int[][] orientation: nextPiece.pieceOrientations){
+                    char[][] lastGrid = deepCopyGrid(existingCombination.get(counter-1).gridAfterPlacement);
+                    for(Placement nextPlacement: fitPiece(orientation, lastGrid, nextPiece.pieceId)){
+                        List<Placement> newCombination = new ArrayList<>(existingCombination);
+                        newCombination.add(nextPlacement);
+                        nextPlacementCombinations.add(newCombination);
+                    }
+                }
+            }
+        }
+        return nextPlacementCombinations;
+    }
+
+
+    private List<Placement> findBestLookahead(List<List<Placement>> lookaheadCombinations){
+        double sumOfPieceFrequencies = 0;
+        for(int i=0; i<puzzlePieces.size(); i++){
+            sumOfPieceFrequencies += puzzlePieces.get(i).relativeFrequency;
+        }
+        List<Placement> bestCombination = null;
+        double bestValue = 0;
+        for(List<Placement> placementCombination: lookaheadCombinations){
+            double totalValue = 0;
+            for(int i=0; i<placementCombination.size(); i++){
+                if(i==0){
+                    totalValue += placementCombination.get(i).placementValue;
+                }
+                else{
+                    double pieceFrequency = puzzlePieces.get(placementCombination.get(i).pieceId).relativeFrequency;
+                    totalValue += (pieceFrequency * placementCombination.get(i).placementValue) / sumOfPieceFrequencies;
+                }
+            }
+            totalValue = totalValue - gridPenalty(placementCombination.get(placementCombination.size()-1).gridAfterPlacement);
+            if(bestCombination==null || totalValue>bestValue){
+                bestValue = totalValue;
+                bestCombination = placementCombination;
+            }
+        }
+        return bestCombination;
+    }
+
+
+    private char[][] deepCopyGrid(char[][] gridToCopy){
+        char[][] copyGrid = new char[gridToCopy.length][];
+        for(int row=0; row<gridToCopy.length; row++){
+            copyGrid[row] = gridToCopy[row].clone();
+        }
+        return copyGrid;
+    }
+
+
+    //the baseline's check that a piece does not float: a cell of the piece's matrix (empty or not) must be one row above its column's topmost block,
+    //where the piece's blocks placed so far (bottom-up, left-to-right) count as blocks of the grid
+    private boolean isPlacementValid(int[][] piece, int startingY, int startingX, char[][] currGrid){
+        boolean floatingPiece = true;
+        for(int y=0; y<piece.length; y++){
+            for(int x=0; x<piece[0].length; x++){
+                if(startingY + y == nextRowInExistingColumn(currGrid, startingX + x)){
+                    floatingPiece = false;
+                }
+                if(piece[y][x] == 1){
+                    currGrid[startingY + y][startingX + x] = '*';
+                }
+            }
+        }
+        return !floatingPiece;
+    }
+
+
+    private int nextRowInExistingColumn(char[][] currGrid, int col){
+        for(int row=height-1; row>=0; row--){
+            if(currGrid[row][col]!=' '){
+                return row + 1;
+            }
+        }
+        return 0;
+    }
+
+
+    private Placement findPlacementValue(int[][] piece, int startingY, int startingX, char[][] currGrid, int pieceId){
+        for(int y=0; y<piece.length; y++){
+            for(int x=0; x<piece[0].length; x++){
+                if(piece[y][x]==1){
+                    currGrid[startingY + y][startingX + x] = '*';
+                }
+            }
+        }
+        int numberOfRowsCleared = clearFullRows(currGrid);
+        int pointsEarned = 0;
+        for(int i=1; i<=numberOfRowsCleared; i++){
+            pointsEarned = i==1 ? 50 : pointsEarned * 2;
+        }
+        return new Placement(startingY, startingX, pieceId, pointsEarned, numberOfRowsCleared, currGrid);
+    }
+
+
+    private int clearFullRows(char[][] gridAfterPlacement){
+        int rowsCleared = 0;
+        while(findFullRow(gridAfterPlacement)!=-1){
+            rowsCleared++;
+            int fullRow = findFullRow(gridAfterPlacement);
+            for(int col=0; col<width; col++){
+                gridAfterPlacement[fullRow][col] = ' ';
+            }
+            if(fullRow==height-1){
+                continue;
+            }
+            for(int row=fullRow; row<height; row++){
+                for(int col=0; col<width; col++){
+                    gridAfterPlacement[row][col] = row!=height-1 ? gridAfterPlacement[row+1][col] : ' ';
+                }
+            }
+        }
+        return rowsCleared;
+    }
+
+
+    private int findFullRow(char[][] gridAfterPlacement){
+        for(int row=0; row<height; row++){
+            if(new String(gridAfterPlacement[row]).equals(checkFullRow)){
+                return row;
+            }
+        }
+        return -1;
+    }
+
+
+    private int gridPenalty(char[][] currGrid){
+        int penalty = 0;
+        boolean gridIsEven = width%2==0;
+        int center = width/2;
+        for(int row=0; row<height; row++){
+            for(int col=0; col<width; col++){
+                if(currGrid[row][col]==' '){
+                    int topRowInCol = nextRowInExistingColumn(currGrid, col) - 1;
+                    if(row<topRowInCol){
+                        penalty += (topRowInCol - row) * 7;
+                    }
+                }
+                else{
+                    penalty += row * 10;
+                    if(gridIsEven){
+                        if(col<center-1){
+                            penalty += center - col - 1;
+                        }
+                        else if(col>center){
+                            penalty += col - center;
+                        }
+                    }
+                    else{
+                        if(col<center){
+                            penalty += center - col;
+                        }
+                        else if(col>center){
+                            penalty += col - center;
+                        }
+                    }
+                }
+            }
+        }
+        return penalty;
+    }
+
+
+    //the baseline's PiecePlacement (with the rows the placement cleared)
+    private static class Placement {
+        private int startingY;
+        private int startingX;
+        private int pieceId;
+        private int placementValue;
+        private int rowsCleared;
+        private char[][] gridAfterPlacement;
+
+        Placement(int startingY, int startingX, int pieceId, int placementValue, int rowsCleared, char[][] gridAfterPlacement){
+            this.startingY = startingY;
+            this.startingX = startingX;
+            this.pieceId = pieceId;
+            this.placementValue = placementValue;
+            this.rowsCleared = rowsCleared;
+            this.gridAfterPlacement = gridAfterPlacement;
+        }
+    }
+
+
+    //the baseline's Tetromino: the piece's matrix and its distinct rotations that fit in the grid, in the order they are found
+    private static class ReferencePiece {
+        private int pieceId;
+        private int relativeFrequency;
+        private List<int[][]> pieceOrientations;
+
+        ReferencePiece(String[] pieceRows, int pieceId, int relativeFrequency, int gridWidth, int gridHeight){
+            int pieceWidth = 0;
+            for(String pieceRow: pieceRows){
+                pieceWidth = Math.max(pieceWidth, pieceRow.length());
+            }
+            int[][] piece = new int[pieceRows.length][pieceWidth];
+            for(int row=0; row<pieceRows.length; row++){
+                for(int col=0; col<pieceRows[row].length(); col++){
+                    piece[row][col] = pieceRows[row].charAt(col)==' ' ? 0 : 1;
+                }
+            }
+            pieceOrientations = new ArrayList<>();
+            if(pieceWidth<=gridWidth && pieceRows.length<=gridHeight){
+                pieceOrientations.add(piece);
+            }
+            int[][] tempPiece = piece;
+            for(int i=0; i<3; i++){
+                int[][] rotatedPiece = rotatePiece(tempPiece);
+                if(isDuplicateRotation(rotatedPiece)){
+                    continue;
+                }
+                if(rotatedPiece.length<=gridHeight && rotatedPiece[0].length<=gridWidth){
+                    pieceOrientations.add(rotatedPiece);
+                }
+                tempPiece = rotatedPiece;
+            }
+            if(pieceOrientations.isEmpty()){
+                throw new IllegalArgumentException("Piece does not fit in grid dimensions!");
+            }
+            this.pieceId = pieceId;
+            this.relativeFrequency = relativeFrequency;
+        }
+
+
+        private static int[][] rotatePiece(int[][] piece){
+            int height = piece.length;
+            int width = piece[0].length;
+            int[][] rotatedPiece = new int[width][height];
+            for(int row=0; row<height; row++){
+                for(int col=0; col<width; col++){
+                    rotatedPiece[col][height-1-row] = piece[row][col];
+                }
+            }
+            return rotatedPiece;
+        }
+
+
+        private boolean isDuplicateRotation(int[][] rotatedPiece){
+            for(int[][] orientation: pieceOrientations){
+                if(Arrays.deepEquals(rotatedPiece, orientation)){
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of the per-call search metrics (setMetricsEnabled()): collecting them must not change the games the solver plays, and the pruned search's
+//ordering probes must not be counted as search nodes
+class SearchMetricsTest {
+    @Test
+    void metricsDoNotChangeResults(){
+        SolverGames.assertSameGames(solver -> solver.setMetricsEnabled(true), (solver, pieceId, lookahead) -> {
+            int value = solver.placePiece(pieceId, lookahead);
+            SearchMetricsSnapshot metrics = solver.getLastPlacementMetrics();
+            assertNotNull(metrics);
+            return value;
+        });
+        SolverGames.assertSameGames(solver -> {
+            solver.setMetricsEnabled(true);
+            solver.setSearchParallelism(4);
+        }, TetrisSolver::placePiece);
+        assertSameNodeCounts(SolverGames.TETROMINOES, 6, 10, 1, 1001);
+        assertSameNodeCounts(SolverGames.SMALL_PIECE_SET, 5, 8, 2, 2002);
+    }
+
+
+    //method to play the same games with the pruned and the unpruned search (without a transposition table, whose hits would change the counts),
+    //checking that a pruned search that pruned nothing applied and scored as many placements as the unpruned search, and never more otherwise
+    private static void assertSameNodeCounts(String[] pieces, int width, int height, int lookahead, long seed){
+        int unprunedPlacements = 0;
+        for(int board=0; board<SolverGames.BOARDS; board++){
+            Random random = new Random(seed + board);
+            TetrisSolver unpruned = SolverGames.createSolver(width, height, pieces, new Random(seed + board));
+            TetrisSolver pruned = SolverGames.createSolver(width, height, pieces, new Random(seed + board));
+            for(TetrisSolver solver: new TetrisSolver[]{unpruned, pruned}){
+                solver.setTranspositionTableSize(0);
+                solver.setMetricsEnabled(true);
+            }
+            pruned.setLookaheadPruning(true);
+            for(int step=0; step<SolverGames.STEPS; step++){
+                if(random.nextInt(6)==0){
+                    String row = SolverGames.randomRow(random, width);
+                    assertEquals(SolverGames.outcome(() -> SolverGames.addRow(unpruned, row)), SolverGames.outcome(() -> SolverGames.addRow(pruned, row)));
+                    continue;
+                }
+                int pieceId = random.nextInt(pieces.length);
+                String expected = SolverGames.outcome(() -> unpruned.placePiece(pieceId, lookahead));
+                assertEquals(expected, SolverGames.outcome(() -> pruned.placePiece(pieceId, lookahead)), "board " + board + " step " + step);
+                if(expected.startsWith("exception")){
+                    break;   //game over
+                }
+                SearchMetricsSnapshot unprunedMetrics = unpruned.getLastPlacementMetrics();
+                SearchMetricsSnapshot prunedMetrics = pruned.getLastPlacementMetrics();
+                if(pruned.getPrunedNodeCount()==0){
+                    assertEquals(unprunedMetrics.getPlacementsApplied(), prunedMetrics.getPlacementsApplied(), "board " + board + " step " + step);
+                    assertEquals(unprunedMetrics.getLeavesScored(), prunedMetrics.getLeavesScored(), "board " + board + " step " + step);
+                    unprunedPlacements++;
+                }
+                else{
+                    assertTrue(prunedMetrics.getPlacementsApplied()<=unprunedMetrics.getPlacementsApplied(), "board " + board + " step " + step);
+                    assertTrue(prunedMetrics.getLeavesScored()<=unprunedMetrics.getLeavesScored(), "board " + board + " step " + step);
+                }
+            }
+        }
+        assertTrue(unprunedPlacements>0);
+    }
+}
@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of the offline games of SelfPlaySimulator and SessionLoadGenerator: a run's games only depend on its seed (not on the number of threads,
+//the games' transposition tables or the service's admission limit), and a game ends when its piece cannot be placed (a GameOverException)
+class SelfPlaySimulatorTest {
+    private static final String[] TETROMINOES = {"****", "**\n**", "***\n *", "*\n***", "***\n*", "**\n **", " **\n**"};
+    private static final int GAMES = 12;
+
+    @Test
+    void gamesOnlyDependOnTheSeed(){
+        TetrisSolver template = SolverGames.createSolver(6, 8, TETROMINOES, new Random(13));
+        SimulationResult expected = new SelfPlaySimulator(template, 1, 200).run(GAMES, 5, 1);
+        assertEquals(GAMES, expected.getGamesOver());   //a 6x8 grid cannot hold 200 placements
+        SelfPlaySimulator threaded = new SelfPlaySimulator(template, 1, 200);
+        threaded.setGameTranspositionTableSize(1 << 10);
+        assertSameGames(expected, threaded.run(GAMES, 5, 4));
+        assertThrows(IllegalArgumentException.class, () -> threaded.setGameTranspositionTableSize(-1));
+    }
+
+
+    @Test
+    void sessionsPlayTheSimulatorsGames(){
+        TetrisSolver template = SolverGames.createSolver(6, 8, TETROMINOES, new Random(14));
+        SimulationResult expected = new SelfPlaySimulator(template, 1, 30).run(GAMES, 6, 2);
+        SolverService service = new SolverService(template, 2, 3);   //fewer queued searches than sessions, so placements are rejected and retried
+        try{
+            SessionLoadGenerator generator = new SessionLoadGenerator(service, 1, 30);
+            assertSameGames(expected, generator.run(GAMES, 6));
+            assertTrue(generator.getRejections()>0);
+        }
+        finally{
+            service.shutdown();
+        }
+    }
+
+
+    @Test
+    void gameOverIsThrownAsItsOwnException(){
+        TetrisSolver solver = new TetrisSolver(4, 4);
+        solver.addPuzzlePiece("****", 1);
+        for(int step=0; step<4; step++){
+            solver.placePiece(0, 0);   //the bars are laid flat, and every one fills (and clears) a row
+        }
+        solver.addPuzzlePiece("**\n**", 1);
+        solver.addPuzzleRow("*** ");
+        solver.addPuzzleRow("*** ");
+        solver.addPuzzleRow("*** ");
+        GameOverException e = assertThrows(GameOverException.class, () -> solver.placePiece(1, 0));
+        assertTrue(e.getMessage().startsWith("GAME OVER"));
+    }
+
+
+    private static void assertSameGames(SimulationResult expected, SimulationResult actual){
+        assertEquals(expected.getGames(), actual.getGames());
+        for(int game=0; game<expected.getGames(); game++){
+            assertEquals(expected.getGamePlacements(game), actual.getGamePlacements(game), "game " + game);
+            assertEquals(expected.getGameScore(game), actual.getGameScore(game), "game " + game);
+            assertEquals(expected.getGameRowsCleared(game), actual.getGameRowsCleared(game), "game " + game);
+            assertEquals(expected.isGameOver(game), actual.isGameOver(game), "game " + game);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of the solver's skyline (getColumnHeight() and getStackHeight()) against the grid showPuzzle() renders
+class SkylineTest {
+    @Test
+    void skylineMatchesRenderedGrid(){
+        Random random = new Random(25);
+        for(int board=0; board<SolverGames.BOARDS*4; board++){
+            int width = 3 + random.nextInt(8);
+            TetrisSolver solver = SolverGames.createSolver(width, 6 + random.nextInt(12), SolverGames.TETROMINOES, random);
+            for(int step=0; step<SolverGames.STEPS; step++){
+                if(random.nextInt(4)==0){
+                    SolverGames.outcome(() -> SolverGames.addRow(solver, SolverGames.randomRow(random, width)));
+                }
+                else if(SolverGames.outcome(() -> solver.placePiece(random.nextInt(SolverGames.TETROMINOES.length), 0)).startsWith("exception")){
+                    break;
+                }
+                String[] rows = solver.showPuzzle().isEmpty() ? new String[0] : solver.showPuzzle().split("\n");
+                if(rows.length!=solver.getStackHeight()){
+                    continue;   //showPuzzle() stops at the lowest empty row, so the rows above it cannot be compared
+                }
+                for(int col=0; col<width; col++){
+                    int expectedHeight = 0;
+                    for(int line=0; line<rows.length && expectedHeight==0; line++){
+                        if(rows[line].charAt(col)=='*'){
+                            expectedHeight = rows.length - line;
+                        }
+                    }
+                    assertEquals(expectedHeight, solver.getColumnHeight(col));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.*;
+import java.util.function.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//helpers shared by the solver's tests: seeded random solvers, rows and games. The differential tests of the search modes play the same seeded
+//random games (random pieces and added rows) as the exhaustive lookahead search (sequential, without pruning or a transposition table), which is
+//itself compared against the baseline solver by BaselineEquivalenceTest. The boards are small, since the exhaustive search grows exponentially
+//with the lookahead
+final class SolverGames {
+    static final String[] TETROMINOES = {"****", "**\n**", "***\n *", "*\n***", "***\n*", "**\n **", " **\n**"};
+    static final String[] SMALL_PIECE_SET = {"****", "**\n**", "***\n *", "*"};   //pieces of the lookahead 2 games
+    static final int BOARDS = 12;
+    static final int DEEP_BOARDS = 4;   //boards of the lookahead 2 games
+    static final int STEPS = 40;
+
+    //a way of placing a piece that must give the same result as placePiece(pieceId, lookahead) on the exhaustive solver
+    interface Placer {
+        int place(TetrisSolver solver, int pieceId, int lookahead);
+    }
+
+    private SolverGames(){
+    }
+
+
+    //method to play the same games with the exhaustive search and with a solver set up by <setup> that places pieces with <placer>:
+    //games at lookahead 1 with the tetrominoes, then games at lookahead 2 with a smaller piece set
+    static void assertSameGames(Consumer<TetrisSolver> setup, Placer placer){
+        assertSameGames(setup, placer, TETROMINOES, 6, 10, 1, BOARDS, 1001);
+        assertSameGames(setup, placer, SMALL_PIECE_SET, 5, 8, 2, DEEP_BOARDS, 2002);
+    }
+
+
+    static void assertSameGames(Consumer<TetrisSolver> setup, Placer placer, String[] pieces, int width, int height, int lookahead, int boards, long seed){
+        for(int board=0; board<boards; board++){
+            Random random = new Random(seed + board);
+            TetrisSolver exhaustive = createSolver(width, height, pieces, new Random(seed + board));
+            exhaustive.setTranspositionTableSize(0);
+            TetrisSolver solver = createSolver(width, height, pieces, new Random(seed + board));
+            setup.accept(solver);
+            for(int step=0; step<STEPS; step++){
+                if(random.nextInt(6)==0){
+                    String row = randomRow(random, width);
+                    assertEquals(outcome(() -> addRow(exhaustive, row)), outcome(() -> addRow(solver, row)), "board " + board + " step " + step);
+                }
+                else{
+                    int pieceId = random.nextInt(pieces.length);
+                    String expected = outcome(() -> exhaustive.placePiece(pieceId, lookahead));
+                    assertEquals(expected, outcome(() -> placer.place(solver, pieceId, lookahead)), "board " + board + " step " + step);
+                    if(expected.startsWith("exception")){
+                        break;   //game over
+                    }
+                }
+                assertEquals(exhaustive.showPuzzle(), solver.showPuzzle(), "board " + board + " step " + step);
+            }
+        }
+    }
+
+
+    //method to create a solver with a set of pieces, each with a random relative frequency
+    static TetrisSolver createSolver(int width, int height, String[] pieces, Random random){
+        TetrisSolver solver = new TetrisSolver(width, height);
+        for(String piece: pieces){
+            solver.addPuzzlePiece(piece, 1 + random.nextInt(5));
+        }
+        return solver;
+    }
+
+
+    //method to create a random row that is neither empty nor full (as addPuzzleRow() requires)
+    static String randomRow(Random random, int width){
+        char[] row = new char[width];
+        int blocks = 0;
+        for(int col=0; col<width; col++){
+            row[col] = random.nextInt(3)==0 ? ' ' : '*';
+            blocks += row[col]=='*' ? 1 : 0;
+        }
+        if(blocks==0 || blocks==width){
+            row[random.nextInt(width)] = blocks==0 ? '*' : ' ';
+        }
+        return new String(row);
+    }
+
+
+    static int addRow(TetrisSolver solver, String row){
+        solver.addPuzzleRow(row);
+        return 0;
+    }
+
+
+    //method to describe the outcome of a call (its value or its exception) so that two solvers' outcomes can be compared
+    static String outcome(IntSupplier call){
+        try{
+            return "value " + call.getAsInt();
+        }
+        catch(IllegalArgumentException e){
+            return "exception " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of SolverService's sessions and admission control: a search's admission slot must be released however its call ends (it ran, it was
+//cancelled before it started, or the executor rejected it), and sessions must play the same games as a solver used directly and share
+//the template's pieces until they add their own
+class SolverServiceTest {
+    private static final String[] TETROMINOES = {"****", "**\n**", "***\n *", "*\n***", "***\n*", "**\n **", " **\n**"};
+
+    @Test
+    void sessionsPlayLikeDirectSolvers() throws Exception{
+        TetrisSolver template = SolverGames.createSolver(6, 10, TETROMINOES, new Random(21));
+        SolverService service = new SolverService(template, 4, 1000);
+        try{
+            Random random = new Random(22);
+            for(int game=0; game<8; game++){
+                long sessionId = service.openSession();
+                TetrisSolver direct = new TetrisSolver(template);
+                direct.setTranspositionTableSize(0);
+                for(int step=0; step<30; step++){
+                    int pieceId = random.nextInt(TETROMINOES.length);
+                    String expected = SolverGames.outcome(() -> direct.placePiece(pieceId, 1));
+                    CompletableFuture<Integer> placement = service.placePiece(sessionId, pieceId, 1);
+                    assertEquals(expected, SolverGames.outcome(() -> {
+                        try{
+                            return placement.join();
+                        }
+                        catch(CompletionException e){
+                            throw (IllegalArgumentException) e.getCause();
+                        }
+                    }));
+                    assertEquals(direct.showPuzzle(), service.showPuzzle(sessionId).get());
+                    if(expected.startsWith("exception")){
+                        break;
+                    }
+                }
+                service.closeSession(sessionId);
+            }
+            assertEquals(0, service.getQueuedSearches());
+        }
+        finally{
+            service.shutdown();
+        }
+    }
+
+
+    @Test
+    void sessionsShareThePiecesUntilTheyAddAPiece(){
+        TetrisSolver template = SolverGames.createSolver(6, 10, TETROMINOES, new Random(26));
+        TetrisSolver first = new TetrisSolver(template);
+        TetrisSolver second = new TetrisSolver(template);
+        assertSame(template.getPieceCatalog(), first.getPieceCatalog());
+        assertSame(template.getPuzzlePiece(0), second.getPuzzlePiece(0));
+        assertEquals(TETROMINOES.length, first.addPuzzlePiece("*", 1));
+        assertThrows(IllegalArgumentException.class, () -> first.addPuzzlePiece("*", 2));   //the copied maps hold the new piece
+        assertNotSame(template.getPieceCatalog(), first.getPieceCatalog());
+        assertEquals(TETROMINOES.length + 1, first.getPuzzlePieceCount());
+        assertEquals(TETROMINOES.length, template.getPuzzlePieceCount());   //the shared maps are unchanged
+        assertEquals(TETROMINOES.length, second.getPuzzlePieceCount());
+        assertSame(template.getPieceCatalog(), second.getPieceCatalog());
+        assertEquals(TETROMINOES.length, second.addPuzzlePiece("*", 3));
+        assertThrows(IllegalArgumentException.class, () -> new TetrisSolver(template).addPuzzlePiece("****", 1));   //duplicates are still found
+    }
+
+
+    @Test
+    void searchesBeyondTheLimitAreRejected() throws Exception{
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch blocker = new CountDownLatch(1);
+        try{
+            SolverService service = new SolverService(SolverGames.createSolver(6, 10, TETROMINOES, new Random(23)), executor, 2);
+            executor.execute(() -> awaitQuietly(blocker));   //keeps the searches queued
+            long sessionId = service.openSession();
+            CompletableFuture<Integer> first = service.placePiece(sessionId, 0, 0);
+            CompletableFuture<Integer> second = service.placePiece(sessionId, 1, 0);
+            assertThrows(RejectedExecutionException.class, () -> service.placePiece(sessionId, 2, 0));
+            assertEquals(1, service.getRejectedSearches());
+            assertEquals(2, service.getQueuedSearches());
+            blocker.countDown();
+            first.get();
+            second.get();
+            assertEquals(0, service.getQueuedSearches());
+        }
+        finally{
+            blocker.countDown();
+            executor.shutdown();
+        }
+    }
+
+
+    @Test
+    void cancelledSearchReleasesItsSlot() throws Exception{
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch blocker = new CountDownLatch(1);
+        try{
+            SolverService service = new SolverService(SolverGames.createSolver(6, 10, TETROMINOES, new Random(24)), executor, 2);
+            executor.execute(() -> awaitQuietly(blocker));
+            long sessionId = service.openSession();
+            CompletableFuture<Integer> first = service.placePiece(sessionId, 0, 0);
+            CompletableFuture<Integer> cancelled = service.placePiece(sessionId, 1, 0);
+            assertEquals(2, service.getQueuedSearches());
+            assertTrue(cancelled.cancel(false));
+            assertEquals(1, service.getQueuedSearches());
+            CompletableFuture<Integer> third = service.placePiece(sessionId, 2, 0);   //admitted in the cancelled search's slot
+            blocker.countDown();
+            first.get();
+            third.get();
+            assertEquals(0, service.getQueuedSearches());
+            //the cancelled search never ran: the grid only has the first and the third pieces (4 blocks each)
+            assertEquals(8, service.showPuzzle(sessionId).get().chars().filter(c -> c=='*').count());
+        }
+        finally{
+            blocker.countDown();
+            executor.shutdown();
+        }
+    }
+
+
+    @Test
+    void searchRejectedByTheExecutorReleasesItsSlot() throws Exception{
+        //an executor that runs one call at a time and queues none, so a call submitted while another runs is rejected
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try{
+            SolverService service = new SolverService(SolverGames.createSolver(6, 10, TETROMINOES, new Random(25)), executor, 4);
+            executor.execute(() -> awaitQuietly(blocker));
+            long sessionId = service.openSession();
+            CompletableFuture<Integer> rejected = service.placePiece(sessionId, 0, 0);
+            ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            assertEquals(0, service.getQueuedSearches());
+            blocker.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            //a shut down executor rejects every call
+            assertThrows(ExecutionException.class, () -> service.placePiece(sessionId, 1, 0).get());
+            assertEquals(0, service.getQueuedSearches());
+        }
+        finally{
+            blocker.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+
+    private static void awaitQuietly(CountDownLatch latch){
+        try{
+            latch.await();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.*;
+
+import java.time.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of TetrisSolver's snapshot() and restore(): a restored solver plays on exactly like the solver it was saved from, and a corrupt snapshot
+//is rejected with an IllegalArgumentException before restore() allocates more than the snapshot's size warrants
+class SolverSnapshotTest {
+    private static final String[] PIECES = {"****", "**\n**", "***\n *", "*\n***", "**\n **", "*", "***\n* *", "*\n*\n*\n*\n*"};
+
+    @Test
+    void restoredSolverPlaysLikeTheOriginal(){
+        Random random = new Random(18);
+        for(int board=0; board<40; board++){
+            int width = 5 + random.nextInt(board % 5==0 ? 120 : 8);
+            TetrisSolver solver = SolverGames.createSolver(width, 8 + random.nextInt(30), PIECES, random);
+            for(int step=0; step<30; step++){
+                if(random.nextInt(4)==0){
+                    SolverGames.outcome(() -> {
+                        solver.addPuzzleRow(SolverGames.randomRow(random, width));
+                        return 0;
+                    });
+                }
+                else{
+                    TetrisSolver restored = TetrisSolver.restore(solver.snapshot());
+                    assertEquals(solver.showPuzzle(), restored.showPuzzle());
+                    assertEquals(solver.getStackHeight(), restored.getStackHeight());
+                    assertArrayEquals(solver.snapshot(), restored.snapshot());
+                    int pieceId = random.nextInt(PIECES.length);
+                    String expected = SolverGames.outcome(() -> solver.placePiece(pieceId, 0));
+                    assertEquals(expected, SolverGames.outcome(() -> restored.placePiece(pieceId, 0)));
+                    assertEquals(solver.showPuzzle(), restored.showPuzzle());
+                    if(expected.startsWith("exception")){
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+
+    @Test
+    void hugeDimensionsAreRejectedBeforeAllocating(){
+        //widths and heights beyond the limits, written as 4-byte varints
+        byte[] hugeGrid = {'T', 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0, 0};
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(IllegalArgumentException.class, () -> TetrisSolver.restore(hugeGrid)));
+        //the widest and tallest grid a snapshot can hold is cheap to restore while it is empty
+        SolverSnapshot largest = new SolverSnapshot();
+        largest.writeHeader();
+        largest.writeVarint(SolverSnapshot.MAX_WIDTH);
+        largest.writeVarint(SolverSnapshot.MAX_HEIGHT);
+        largest.writeVarint(0);
+        largest.writeVarint(0);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertEquals(0, TetrisSolver.restore(largest.toByteArray()).getStackHeight()));
+        //a stack of rows the snapshot does not hold
+        SolverSnapshot tallStack = new SolverSnapshot();
+        tallStack.writeHeader();
+        tallStack.writeVarint(SolverSnapshot.MAX_WIDTH);
+        tallStack.writeVarint(SolverSnapshot.MAX_HEIGHT);
+        tallStack.writeVarint(SolverSnapshot.MAX_HEIGHT);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(IllegalArgumentException.class, () -> TetrisSolver.restore(tallStack.toByteArray())));
+    }
+
+
+    @Test
+    void pieceMatricesAreBoundedByTheGrid(){
+        //a 4x6 grid with a piece that fits it rotated (a 6x1 bar) and one that does not fit it at all (a 7x1 bar)
+        assertDoesNotThrow(() -> TetrisSolver.restore(snapshotWithBar(6)));
+        assertThrows(IllegalArgumentException.class, () -> TetrisSolver.restore(snapshotWithBar(7)));
+        //a piece matrix whose cells the snapshot does not hold
+        SolverSnapshot missingCells = new SolverSnapshot();
+        missingCells.writeHeader();
+        missingCells.writeVarint(4000);
+        missingCells.writeVarint(4000);
+        missingCells.writeVarint(0);
+        missingCells.writeVarint(1);
+        missingCells.writeVarint(1);
+        missingCells.writeVarint(4000);
+        missingCells.writeVarint(4000);
+        assertThrows(IllegalArgumentException.class, () -> TetrisSolver.restore(missingCells.toByteArray()));
+    }
+
+
+    @Test
+    void corruptSnapshotsAreRejected(){
+        Random random = new Random(19);
+        TetrisSolver solver = SolverGames.createSolver(10, 20, PIECES, random);
+        for(int step=0; step<15; step++){
+            solver.placePiece(random.nextInt(PIECES.length), 0);
+        }
+        byte[] snapshot = solver.snapshot();
+        for(int length=0; length<snapshot.length; length++){   //every truncated snapshot
+            byte[] truncated = Arrays.copyOf(snapshot, length);
+            assertThrows(IllegalArgumentException.class, () -> TetrisSolver.restore(truncated));
+        }
+        for(int i=0; i<2000; i++){   //random corruptions either restore or are rejected, without any other exception
+            byte[] corrupt = snapshot.clone();
+            corrupt[random.nextInt(corrupt.length)] ^= (byte) (1 << random.nextInt(8));
+            try{
+                TetrisSolver.restore(corrupt);
+            }
+            catch(IllegalArgumentException e){
+                //rejected
+            }
+        }
+    }
+
+
+    //method to write a snapshot of an empty 4x6 grid (4 columns, 6 rows) with a single bar of <length> blocks lying on its side
+    private static byte[] snapshotWithBar(int length){
+        int[][] bar = new int[1][length];
+        Arrays.fill(bar[0], 1);
+        int[][] standingBar = new int[length][1];
+        for(int[] row: standingBar){
+            row[0] = 1;
+        }
+        SolverSnapshot snapshot = new SolverSnapshot();
+        snapshot.writeHeader();
+        snapshot.writeVarint(4);
+        snapshot.writeVarint(6);
+        snapshot.writeVarint(0);
+        snapshot.writeVarint(1);
+        snapshot.writeVarint(1);
+        snapshot.writeMatrix(bar);
+        snapshot.writeMatrix(bar);
+        snapshot.writeVarint(1);
+        snapshot.writeMatrix(standingBar);
+        return snapshot.toByteArray();
+    }
+}
@@ -0,0 +1,154 @@
+import org.junit.jupiter.api.*;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//tests of the transposition table's hashing and entries, and differential tests of the searches that use it against the exhaustive search
+class TranspositionTableTest {
+
+    @Test
+    void transpositionTableMatchesExhaustiveSearch(){
+        SolverGames.assertSameGames(solver -> {}, TetrisSolver::placePiece);   //the default table
+    }
+
+
+    @Test
+    void smallTranspositionTableMatchesExhaustiveSearch(){
+        //a table that is full after a few grids, so entries are evicted and replaced throughout the search
+        SolverGames.assertSameGames(solver -> solver.setTranspositionTableSize(50), TetrisSolver::placePiece);
+        SolverGames.assertSameGames(solver -> {
+            solver.setTranspositionTableSize(50);
+            solver.setSearchParallelism(4);
+        }, TetrisSolver::placePiece);
+    }
+
+
+    @Test
+    void tableOfHugeGridDoesNotAllocatePerCell(){
+        //width * height overflows an int, and a key per cell would take terabytes
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBytes = threads.getCurrentThreadAllocatedBytes();
+        TranspositionTable table = new TranspositionTable(1 << 16, (1 << 24) - 1, 16);
+        assertTrue(threads.getCurrentThreadAllocatedBytes() - allocatedBytes<(1 << 20));
+        BitGrid grid = new BitGrid(1 << 16, (1 << 24) - 1);
+        grid.fill(0, (1 << 16) - 1);
+        grid.fill(2, 5);
+        assertNotEquals(table.hash(new BitGrid(1 << 16, (1 << 24) - 1), 1), table.hash(grid, 1));
+    }
+
+
+    @Test
+    void cellKeysAreDistinct(){
+        //every grid with a single block (and every remaining lookahead of the empty grid) has its own hash
+        int width = 70;
+        int height = 300;
+        TranspositionTable table = new TranspositionTable(width, height, 16);
+        Set<Long> hashes = new HashSet<>();
+        for(int lookahead=0; lookahead<8; lookahead++){
+            assertTrue(hashes.add(table.hash(new BitGrid(width, height), lookahead)));
+        }
+        for(int row=0; row<height; row++){
+            for(int col=0; col<width; col++){
+                BitGrid grid = new BitGrid(width, height);
+                grid.fill(row, col);
+                assertTrue(hashes.add(table.hash(grid, 1)));
+            }
+        }
+    }
+
+
+    @Test
+    void hashIsTheXorOfTheBlocksKeys(){
+        Random random = new Random(4);
+        TranspositionTable table = new TranspositionTable(12, 20, 16);
+        long emptyHash = table.hash(new BitGrid(12, 20), 2);
+        for(int i=0; i<200; i++){
+            BitGrid grid = new BitGrid(12, 20);
+            long expected = emptyHash;
+            for(int block=0; block<10; block++){
+                int row = random.nextInt(20);
+                int col = random.nextInt(12);
+                if(!grid.isFilled(row, col)){
+                    BitGrid single = new BitGrid(12, 20);
+                    single.fill(row, col);
+                    expected ^= table.hash(single, 2) ^ emptyHash;
+                    grid.fill(row, col);
+                }
+            }
+            assertEquals(expected, table.hash(grid, 2));
+        }
+    }
+
+
+    @Test
+    void storedEntriesAreFound(){
+        TranspositionTable table = new TranspositionTable(10, 20, 1000);
+        long[] result = new long[2];
+        for(long key=1; key<=5000; key++){
+            table.store(key * 0x9E3779B97F4A7C15L, key % 4, -key);
+            assertTrue(table.find(key * 0x9E3779B97F4A7C15L, result));
+            assertArrayEquals(new long[]{key % 4, -key}, result);
+        }
+        int found = 0;
+        for(long key=1; key<=5000; key++){
+            found += table.find(key * 0x9E3779B97F4A7C15L, result) ? 1 : 0;
+        }
+        assertTrue(found<=1000 && found>=500);   //the table holds at most its capacity, and most of its entries are in use
+        assertFalse(table.find(12345, result));
+        table.clear();
+        assertFalse(table.find(5000 * 0x9E3779B97F4A7C15L, result));
+    }
+
+
+    @Test
+    void recentlyUsedEntriesAreKept(){
+        //a table of a single bucket: an entry that is found again between stores gets a second chance
+        TranspositionTable table = new TranspositionTable(10, 20, 4);
+        long[] result = new long[2];
+        for(long key=0; key<4; key++){
+            table.store(key, 1, key);
+        }
+        for(long key=4; key<100; key++){
+            assertTrue(table.find(0, result));
+            table.store(key, 1, key);
+        }
+        assertTrue(table.find(0, result));
+        assertArrayEquals(new long[]{1, 0}, result);
+    }
+
+
+    @Test
+    void concurrentStoresAreNeverTorn() throws Exception{
+        //threads store and find keys whose depth and value are functions of the key in a small table, so entries are overwritten constantly:
+        //a found entry must always hold its own key's depth and value
+        TranspositionTable table = new TranspositionTable(10, 20, 64);
+        Thread[] threads = new Thread[4];
+        AtomicReference<AssertionError> failure = new AtomicReference<>();
+        for(int t=0; t<threads.length; t++){
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                long[] result = new long[2];
+                for(int i=0; i<2_000_000 && failure.get()==null; i++){
+                    long key = random.nextInt(1000) * 0x9E3779B97F4A7C15L;
+                    if(random.nextBoolean()){
+                        table.store(key, key & 7, key * 31);
+                    }
+                    else if(table.find(key, result) && (result[0]!=(key & 7) || result[1]!=key * 31)){
+                        failure.set(new AssertionError("torn entry of key " + key));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread: threads){
+            thread.join();
+        }
+        if(failure.get()!=null){
+            throw failure.get();
+        }
+    }
+}
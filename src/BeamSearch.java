@@ -0,0 +1,268 @@
+import java.util.*;
+
+//this class performs TetrisSolver's beam search, an alternative to the exact depth-first lookahead search whose cost does not grow exponentially with the lookahead.
+//the search goes breadth-first one placement at a time: every partial combination (path) kept at a depth is extended by every placement of every piece,
+//the extended paths are ranked by their frequency-weighted value so far minus the penalty of their grid (scaled the same way as LookaheadSearch),
+//and only the best <beamWidth> of them are kept for the next depth.
+//A path whose grid no piece fits in ends there, and (like in the exact search) paths that reach a deeper lookahead always beat shallower ones.
+//With a beam width that is at least the number of paths at every depth, the result is the same as the exact search's.
+//BeamSearch is not thread-safe
+public class BeamSearch {
+    private PieceCatalog catalog;   //the puzzle pieces
+    private long sumOfPieceFrequencies;
+    private LookaheadSearch placementSearch;   //used to generate placements and to apply them to (and roll them back from) a path's grid
+
+    //paths kept at the current depth (grids are reused between depths and calls)
+    private BitGrid[] beamGrids;
+    private int[] beamRoots;   //index of each path's initial placement
+    private long[] beamValues;   //scaled frequency-weighted value of each path's placements (not including its grid's penalty)
+    private int beamSize;
+    private BitGrid[] nextGrids;   //paths kept for the next depth (swapped with the current paths)
+    private int[] nextRoots;
+    private long[] nextValues;
+
+    //extended paths (candidates) found at the current depth, only the kept ones get a grid
+    private int[] candidateParents;   //index of the path the candidate extends (-1 for initial placements)
+    private int[] candidateRoots;   //index of the initial placement the candidate starts with
+    private long[] candidatePlacements;   //packed placements (see LookaheadSearch)
+    private long[] candidateValues;
+    private long[] candidateScores;   //candidate value minus the scaled penalty of its grid (the value the candidates are ranked by)
+    private int candidateCount;
+    private int[] keptCandidates;   //min-heap of the best candidates (the worst kept candidate is at the top)
+
+    private long[] initialPlacements;   //packed placements of the first piece
+    private long resultDepth;
+
+    BeamSearch(PieceCatalog catalog, BitGrid grid){
+        this.catalog = catalog;
+        sumOfPieceFrequencies = catalog.getSumOfFrequencies();
+        placementSearch = new LookaheadSearch(catalog, null, grid);
+        beamGrids = new BitGrid[0];
+        beamRoots = new int[0];
+        beamValues = new long[0];
+        nextGrids = new BitGrid[0];
+        nextRoots = new int[0];
+        nextValues = new long[0];
+        candidateParents = new int[64];
+        candidateRoots = new int[64];
+        candidatePlacements = new long[64];
+        candidateValues = new long[64];
+        candidateScores = new long[64];
+        keptCandidates = new int[0];
+        initialPlacements = new long[0];
+    }
+
+
+    //method to find the initial placement of piece <firstPieceId> that starts the best combination of <lookahead> more placements found by the beam search.
+    //returns the packed initial placement (-1 if the first piece cannot be placed in the grid)
+    long search(BitGrid grid, int firstPieceId, int lookahead, int beamWidth){
+        //depth 0: the initial placements of the first piece
+        candidateCount = 0;
+        placementSearch.setGrid(grid);
+        int initialPlacementCount = placementSearch.generatePlacements(firstPieceId, 0);
+        if(initialPlacementCount==0){
+            return -1;
+        }
+        if(initialPlacements.length<initialPlacementCount){
+            initialPlacements = new long[initialPlacementCount];
+        }
+        for(int i=0; i<initialPlacementCount; i++){
+            initialPlacements[i] = placementSearch.getPlacement(0, i);
+            addCandidate(-1, i, sumOfPieceFrequencies, initialPlacements[i], 0, 0);   //the initial placement is weighted by the sum of the frequencies
+        }
+        keepBestCandidates(grid, beamWidth);
+        long bestDepth = -1;
+        long bestValue = 0;
+        int bestRoot = -1;
+        for(int depth=1; depth<=lookahead; depth++){
+            candidateCount = 0;
+            for(int p=0; p<beamSize; p++){
+                int candidatesBefore = candidateCount;
+                placementSearch.setGrid(beamGrids[p]);
+                for(int j=0; j<catalog.getPieceCount(); j++){
+                    int placementCount = placementSearch.generatePlacements(j, depth);
+                    for(int i=0; i<placementCount; i++){
+                        addCandidate(p, beamRoots[p], catalog.getRelativeFrequency(j), placementSearch.getPlacement(depth, i), beamValues[p], depth);
+                    }
+                }
+                if(candidateCount==candidatesBefore){   //no piece fits in the path's grid, so its combination ends here
+                    long pathValue = beamValues[p] - TetrisSolver.gridPenalty(beamGrids[p]) * sumOfPieceFrequencies;
+                    if(isBetterPath(depth-1, pathValue, beamRoots[p], bestDepth, bestValue, bestRoot)){
+                        bestDepth = depth - 1;
+                        bestValue = pathValue;
+                        bestRoot = beamRoots[p];
+                    }
+                }
+            }
+            if(candidateCount==0){   //every path has ended
+                resultDepth = bestDepth;
+                return initialPlacements[bestRoot];
+            }
+            keepBestCandidates(null, beamWidth);
+        }
+        //the paths that reached the full lookahead are deeper than any path that ended early
+        bestDepth = -1;
+        for(int p=0; p<beamSize; p++){
+            long pathValue = beamValues[p] - TetrisSolver.gridPenalty(beamGrids[p]) * sumOfPieceFrequencies;
+            if(isBetterPath(lookahead, pathValue, beamRoots[p], bestDepth, bestValue, bestRoot)){
+                bestDepth = lookahead;
+                bestValue = pathValue;
+                bestRoot = beamRoots[p];
+            }
+        }
+        resultDepth = bestDepth;
+        return initialPlacements[bestRoot];
+    }
+
+
+    //number of placements after the initial placement in the best combination of the last search
+    long getResultDepth(){
+        return resultDepth;
+    }
+
+
+    //method to set where the search's metrics are collected (null turns collecting them off)
+    void setMetrics(SearchMetrics metrics){
+        placementSearch.setMetrics(metrics);
+    }
+
+
+    //method used by search() to score an extended path (the placement is applied to the placement search's working grid and rolled back)
+    private void addCandidate(int parent, int root, long frequency, long placement, long parentValue, int depth){
+        int rowsCleared = placementSearch.applyPlacement(placement, depth);
+        long value = parentValue + frequency * TetrisSolver.placementValue(rowsCleared);
+        long score = value - placementSearch.workingGridPenalty() * sumOfPieceFrequencies;
+        placementSearch.undoPlacement(placement, depth, rowsCleared);
+        if(candidateCount==candidateParents.length){
+            int newLength = candidateCount * 2;
+            candidateParents = Arrays.copyOf(candidateParents, newLength);
+            candidateRoots = Arrays.copyOf(candidateRoots, newLength);
+            candidatePlacements = Arrays.copyOf(candidatePlacements, newLength);
+            candidateValues = Arrays.copyOf(candidateValues, newLength);
+            candidateScores = Arrays.copyOf(candidateScores, newLength);
+        }
+        candidateParents[candidateCount] = parent;
+        candidateRoots[candidateCount] = root;
+        candidatePlacements[candidateCount] = placement;
+        candidateValues[candidateCount] = value;
+        candidateScores[candidateCount] = score;
+        candidateCount++;
+    }
+
+
+    //method used by search() to keep the best <beamWidth> candidates as the paths of the next depth
+    //(candidates with equal scores are kept in the order they were found, so the search is deterministic)
+    private void keepBestCandidates(BitGrid rootGrid, int beamWidth){
+        ensureBeamCapacity(Math.min(beamWidth, candidateCount));
+        int keptCount = 0;
+        for(int c=0; c<candidateCount; c++){
+            if(keptCount<beamWidth){
+                keptCandidates[keptCount] = c;
+                siftUp(keptCount);
+                keptCount++;
+            }
+            else if(isWorseCandidate(keptCandidates[0], c)){   //the candidate is better than the worst kept candidate, so it replaces it
+                keptCandidates[0] = c;
+                siftDown(0, keptCount);
+            }
+        }
+        for(int k=0; k<keptCount; k++){
+            int c = keptCandidates[k];
+            int parent = candidateParents[c];
+            long placement = candidatePlacements[c];
+            nextGrids[k].copyFrom(parent==-1 ? rootGrid : beamGrids[parent]);
+            nextRoots[k] = candidateRoots[c];
+            int orientation = LookaheadSearch.placementOrientation(placement);
+            int row = LookaheadSearch.placementRow(placement);
+            nextGrids[k].place(catalog.getMask(orientation), catalog.getCellOffsets(orientation), row, LookaheadSearch.placementColumn(placement));
+            nextGrids[k].removeFullRows(null, row, row + catalog.getHeight(orientation));   //only the rows the piece touched can be full (see BitGrid)
+            nextValues[k] = candidateValues[c];
+        }
+        //the kept paths become the current paths
+        BitGrid[] swapGrids = beamGrids;
+        beamGrids = nextGrids;
+        nextGrids = swapGrids;
+        int[] swapRoots = beamRoots;
+        beamRoots = nextRoots;
+        nextRoots = swapRoots;
+        long[] swapValues = beamValues;
+        beamValues = nextValues;
+        nextValues = swapValues;
+        beamSize = keptCount;
+    }
+
+
+    //a candidate is worse than another if its score is lower, or if it has the same score and was found later
+    private boolean isWorseCandidate(int candidate, int otherCandidate){
+        return candidateScores[candidate]<candidateScores[otherCandidate] || (candidateScores[candidate]==candidateScores[otherCandidate] && candidate>otherCandidate);
+    }
+
+
+    private void siftUp(int index){
+        while(index>0){
+            int parentIndex = (index - 1) / 2;
+            if(!isWorseCandidate(keptCandidates[index], keptCandidates[parentIndex])){
+                return;
+            }
+            swapKept(index, parentIndex);
+            index = parentIndex;
+        }
+    }
+
+
+    private void siftDown(int index, int keptCount){
+        while(true){
+            int worst = index;
+            int left = index*2 + 1;
+            int right = left + 1;
+            if(left<keptCount && isWorseCandidate(keptCandidates[left], keptCandidates[worst])){
+                worst = left;
+            }
+            if(right<keptCount && isWorseCandidate(keptCandidates[right], keptCandidates[worst])){
+                worst = right;
+            }
+            if(worst==index){
+                return;
+            }
+            swapKept(index, worst);
+            index = worst;
+        }
+    }
+
+
+    private void swapKept(int first, int second){
+        int kept = keptCandidates[first];
+        keptCandidates[first] = keptCandidates[second];
+        keptCandidates[second] = kept;
+    }
+
+
+    //method to compare two finished paths: the deeper path wins, then the higher value, then the path with the earlier initial placement
+    //(the same placement the exact search would keep)
+    private static boolean isBetterPath(long depth, long value, int root, long bestDepth, long bestValue, int bestRoot){
+        if(TetrisSolver.isBetterLookahead(depth, value, bestDepth, bestValue)){
+            return true;
+        }
+        return depth==bestDepth && value==bestValue && root<bestRoot;
+    }
+
+
+    //method to grow the path buffers so that they hold <paths> paths (grids are only allocated the first time that many paths are kept)
+    private void ensureBeamCapacity(int paths){
+        if(paths<=beamGrids.length){
+            return;
+        }
+        int oldWidth = beamGrids.length;
+        beamGrids = Arrays.copyOf(beamGrids, paths);
+        nextGrids = Arrays.copyOf(nextGrids, paths);
+        for(int i=oldWidth; i<paths; i++){
+            beamGrids[i] = new BitGrid(placementSearch.getWorkingGrid());
+            nextGrids[i] = new BitGrid(placementSearch.getWorkingGrid());
+        }
+        beamRoots = Arrays.copyOf(beamRoots, paths);
+        beamValues = Arrays.copyOf(beamValues, paths);
+        nextRoots = Arrays.copyOf(nextRoots, paths);
+        nextValues = Arrays.copyOf(nextValues, paths);
+        keptCandidates = new int[paths];
+    }
+}
@@ -0,0 +1,431 @@
+import java.util.*;
+
+//this class stores a Tetris grid as a packed bitboard, where every cell is a single bit (1 = block, 0 = empty space)
+//each row is stored in one long (or in several longs for grids wider than 64 columns), which lets TetrisSolver copy grids,
+//check piece overlaps, and check for full rows using mask operations instead of walking char matrices cell by cell.
+//the grid also keeps the sums that TetrisSolver's gridPenalty() is made of (per-column heights and block counts, the sum of the rows of
+//all blocks, and the sum of their distances from the centre), which are updated as blocks are added and rows are removed.
+//rows are only stored up to the highest row a block has reached (the storage grows when blocks are added higher up), and the grid tracks its
+//stack height (the row above its topmost block), so that copying, hashing and clearing rows cost in proportion to the occupied rows, not the grid's height.
+//every stored row at or above the stack height is empty
+public class BitGrid {
+    private int width;
+    private int height;
+    private int wordsPerRow;   //number of longs used to store a single row
+    private long[] rows;   //row-major bit storage (row r is stored in rows[r*wordsPerRow] ... rows[r*wordsPerRow + wordsPerRow-1]), rows above the storage are empty
+    private int stackHeight;   //row above the grid's topmost block (0 if the grid is empty)
+    private long[] fullRowMask;   //the words of a row where every cell is filled (used to check if rows are full)
+    private int[] centreDistances;   //each column's distance from the grid's centre column(s) (shared between copies since it never changes)
+    private int fullRowCentreDistance;   //sum of the centre distances of a full row
+    private int[] columnHeights;   //next available row in each column (the row above the column's topmost block, 0 if the column is empty)
+    private int[] columnCounts;   //number of blocks in each column
+    private long filledRowSum;   //sum of the rows of all blocks
+    private long centreDistanceSum;   //sum of the centre distances of all blocks
+    private long holeDepthSum;   //sum over empty cells below their column's topmost block of the number of rows between the cell and that block
+    private boolean hasFilledFullRows;   //whether fill() completed a full row (addPuzzleRow() only rejects rows of '*' chars, so a row of other chars
+                                         //can fill a row, which the next placement clears wherever it is)
+    private int[] fullRows;   //buffer of the full rows found by removeFullRows() when the caller does not record them (created when it is first needed)
+
+    BitGrid(int width, int height){
+        this.width = width;
+        this.height = height;
+        wordsPerRow = (width + 63) / 64;
+        rows = new long[Math.min(height, 8) * wordsPerRow];
+        fullRowMask = new long[wordsPerRow];
+        for(int word=0; word<wordsPerRow; word++){
+            int bitsInWord = Math.min(64, width - word*64);
+            fullRowMask[word] = bitsInWord==64 ? -1L : (1L << bitsInWord) - 1;
+        }
+        //calculate how far each column is from the centre (for an even width, the two middle columns are both the centre)
+        centreDistances = new int[width];
+        int center = width/2;
+        for(int col=0; col<width; col++){
+            if(width%2==0 && col<center-1){
+                centreDistances[col] = center - col - 1;
+            }
+            else if(width%2!=0 && col<center){
+                centreDistances[col] = center - col;
+            }
+            else if(col>center){
+                centreDistances[col] = col - center;
+            }
+            fullRowCentreDistance += centreDistances[col];
+        }
+        columnHeights = new int[width];
+        columnCounts = new int[width];
+    }
+
+
+    //copy constructor (used instead of deep copying char matrices when a grid operation is not permanent)
+    BitGrid(BitGrid gridToCopy){
+        width = gridToCopy.width;
+        height = gridToCopy.height;
+        wordsPerRow = gridToCopy.wordsPerRow;
+        rows = Arrays.copyOf(gridToCopy.rows, Math.max(gridToCopy.stackHeight, 1) * wordsPerRow);
+        stackHeight = gridToCopy.stackHeight;
+        fullRowMask = gridToCopy.fullRowMask;   //never modified, so it can be shared between copies
+        centreDistances = gridToCopy.centreDistances;
+        fullRowCentreDistance = gridToCopy.fullRowCentreDistance;
+        columnHeights = gridToCopy.columnHeights.clone();
+        columnCounts = gridToCopy.columnCounts.clone();
+        filledRowSum = gridToCopy.filledRowSum;
+        centreDistanceSum = gridToCopy.centreDistanceSum;
+        holeDepthSum = gridToCopy.holeDepthSum;
+        hasFilledFullRows = gridToCopy.hasFilledFullRows;
+    }
+
+
+    //method to overwrite this grid with the blocks and sums of another grid of the same size (used to reuse a grid instead of copying it)
+    void copyFrom(BitGrid gridToCopy){
+        ensureRows(gridToCopy.stackHeight);
+        System.arraycopy(gridToCopy.rows, 0, rows, 0, gridToCopy.stackHeight*wordsPerRow);
+        if(stackHeight>gridToCopy.stackHeight){   //clear the rows this grid's stack reached above the copied stack
+            Arrays.fill(rows, gridToCopy.stackHeight*wordsPerRow, stackHeight*wordsPerRow, 0);
+        }
+        stackHeight = gridToCopy.stackHeight;
+        System.arraycopy(gridToCopy.columnHeights, 0, columnHeights, 0, width);
+        System.arraycopy(gridToCopy.columnCounts, 0, columnCounts, 0, width);
+        filledRowSum = gridToCopy.filledRowSum;
+        centreDistanceSum = gridToCopy.centreDistanceSum;
+        holeDepthSum = gridToCopy.holeDepthSum;
+        hasFilledFullRows = gridToCopy.hasFilledFullRows;
+    }
+
+
+    //method to convert a piece orientation matrix into its bitboard row masks (mask[y][word] holds the blocks of the piece's row y)
+    static long[][] pieceMask(int[][] piece){
+        int pieceWidth = piece[0].length;
+        long[][] mask = new long[piece.length][(pieceWidth + 63) / 64];
+        for(int y=0; y<piece.length; y++){
+            for(int x=0; x<pieceWidth; x++){
+                if(piece[y][x]==1){
+                    mask[y][x >>> 6] |= 1L << (x & 63);
+                }
+            }
+        }
+        return mask;
+    }
+
+
+    boolean isFilled(int row, int col){
+        if(row>=stackHeight){
+            return false;
+        }
+        return (rows[row*wordsPerRow + (col >>> 6)] & (1L << (col & 63))) != 0;
+    }
+
+
+    void fill(int row, int col){
+        if(isFilled(row, col)){
+            return;
+        }
+        ensureRows(row + 1);
+        rows[row*wordsPerRow + (col >>> 6)] |= 1L << (col & 63);
+        blockAdded(row, col);
+        if(isRowFull(row)){
+            hasFilledFullRows = true;
+        }
+    }
+
+
+    boolean isRowEmpty(int row){
+        if(row>=stackHeight){
+            return true;
+        }
+        return GridKernels.get().isRowEmpty(rows, row*wordsPerRow, 0, wordsPerRow);
+    }
+
+
+    boolean isRowFull(int row){
+        if(row>=stackHeight){
+            return false;
+        }
+        return GridKernels.get().isRowFull(rows, row*wordsPerRow, fullRowMask, 0, wordsPerRow);
+    }
+
+
+    //method to check whether a piece (given as its row masks) placed with its bottom-left corner at (row, col) would overlap existing blocks
+    boolean overlaps(long[][] pieceMask, int row, int col){
+        int wordOffset = col >>> 6;
+        int shift = col & 63;
+        int overlappingRows = Math.min(pieceMask.length, stackHeight - row);   //rows at or above the stack height are empty
+        for(int y=0; y<overlappingRows; y++){
+            int base = (row + y)*wordsPerRow + wordOffset;
+            long[] pieceRow = pieceMask[y];
+            for(int word=0; word<pieceRow.length; word++){
+                long bits = pieceRow[word];
+                if(bits==0){
+                    continue;
+                }
+                if((rows[base + word] & (bits << shift)) != 0){
+                    return true;
+                }
+                //the part of the piece's row that spills over into the next word of the grid's row
+                if(shift!=0 && (bits >>> (64 - shift))!=0 && (rows[base + word + 1] & (bits >>> (64 - shift))) != 0){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    //method to add a piece's blocks (given as its row masks and its block offsets, see PieceCatalog) to the grid with its bottom-left corner at (row, col)
+    //the piece must not overlap existing blocks (which LookaheadSearch checks with overlaps() before placing it)
+    void place(long[][] pieceMask, int[] cellOffsets, int row, int col){
+        ensureRows(row + pieceMask.length);
+        int wordOffset = col >>> 6;
+        int shift = col & 63;
+        for(int y=0; y<pieceMask.length; y++){
+            int base = (row + y)*wordsPerRow + wordOffset;
+            long[] pieceRow = pieceMask[y];
+            for(int word=0; word<pieceRow.length; word++){
+                long bits = pieceRow[word];
+                rows[base + word] |= bits << shift;
+                if(shift!=0 && (bits >>> (64 - shift))!=0){
+                    rows[base + word + 1] |= bits >>> (64 - shift);
+                }
+            }
+        }
+        for(int cellOffset: cellOffsets){   //update the grid's sums for each of the piece's blocks
+            blockAdded(row + (cellOffset >>> 16), col + (cellOffset & 0xFFFF));
+        }
+    }
+
+
+    //method to remove a piece's blocks that were added by place(). The grid's sums are not updated, so they must be restored with restoreSums()
+    //(this is used to roll back a placement during TetrisSolver's lookahead search)
+    void remove(long[][] pieceMask, int row, int col){
+        int wordOffset = col >>> 6;
+        int shift = col & 63;
+        for(int y=0; y<pieceMask.length; y++){
+            int base = (row + y)*wordsPerRow + wordOffset;
+            long[] pieceRow = pieceMask[y];
+            for(int word=0; word<pieceRow.length; word++){
+                long bits = pieceRow[word];
+                rows[base + word] &= ~(bits << shift);
+                if(shift!=0 && (bits >>> (64 - shift))!=0){
+                    rows[base + word + 1] &= ~(bits >>> (64 - shift));
+                }
+            }
+        }
+    }
+
+
+    //method to remove all full rows from the grid (shifting the rows above them down) and return the number of rows removed
+    //the removed rows are recorded in removedRows (highest row first) so that restoreFullRows() can put them back (removedRows may be null)
+    int removeFullRows(int[] removedRows){
+        return removeFullRows(removedRows, 0, height);
+    }
+
+
+    //method to remove the full rows among rows fromRow ... toRow-1 (i.e., the rows a placed piece touched, which are the only rows that can
+    //have become full) in a single pass: the full rows are found first, then the rows between them are moved down once by the number of
+    //full rows below them. Returns the number of rows removed (recorded in removedRows as in removeFullRows())
+    int removeFullRows(int[] removedRows, int fromRow, int toRow){
+        if(hasFilledFullRows){   //fill() made a row full, so every row is checked
+            fromRow = 0;
+            toRow = height;
+            hasFilledFullRows = false;
+        }
+        toRow = Math.min(toRow, stackHeight);   //rows at or above the stack height are empty
+        if(removedRows==null){
+            if(fullRows==null || fullRows.length<toRow-fromRow){
+                fullRows = new int[Math.max(toRow-fromRow, 0)];
+            }
+            removedRows = fullRows;
+        }
+        int rowsRemoved = 0;
+        for(int row=toRow-1; row>=fromRow; row--){
+            if(isRowFull(row)){
+                removedRows[rowsRemoved] = row;
+                rowsRemoved++;
+            }
+        }
+        if(rowsRemoved>0){
+            removeRows(removedRows, rowsRemoved);
+        }
+        return rowsRemoved;
+    }
+
+
+    //method to put back the full rows removed by removeFullRows(), shifting the rows above them back up.
+    //The grid's sums are not updated, so they must be restored with restoreSums()
+    void restoreFullRows(int[] removedRows, int rowsRemoved){
+        //highest row first: the rows above removed row i (up to the next removed row) move up by the number of removed rows at or below row i,
+        //and moving the highest rows first means no row is overwritten before it is moved (the rows above the highest removed row end at the stack height)
+        for(int i=0; i<rowsRemoved; i++){
+            int row = removedRows[i];
+            int shift = rowsRemoved - i;
+            int upperRow = i==0 ? Math.max(stackHeight + shift, row + 1) : removedRows[i-1];
+            System.arraycopy(rows, (row + 1 - shift)*wordsPerRow, rows, (row + 1)*wordsPerRow, (upperRow - row - 1)*wordsPerRow);
+            System.arraycopy(fullRowMask, 0, rows, row*wordsPerRow, wordsPerRow);
+        }
+    }
+
+
+    //methods to save and restore the grid's sums (used to roll back a placement during TetrisSolver's lookahead search without recalculating them)
+    void saveSums(int[] savedColumnHeights, int[] savedColumnCounts, long[] savedSums){
+        System.arraycopy(columnHeights, 0, savedColumnHeights, 0, width);
+        System.arraycopy(columnCounts, 0, savedColumnCounts, 0, width);
+        savedSums[0] = filledRowSum;
+        savedSums[1] = centreDistanceSum;
+        savedSums[2] = holeDepthSum;
+        savedSums[3] = hasFilledFullRows ? 1 : 0;
+        savedSums[4] = stackHeight;
+    }
+
+    void restoreSums(int[] savedColumnHeights, int[] savedColumnCounts, long[] savedSums){
+        System.arraycopy(savedColumnHeights, 0, columnHeights, 0, width);
+        System.arraycopy(savedColumnCounts, 0, columnCounts, 0, width);
+        filledRowSum = savedSums[0];
+        centreDistanceSum = savedSums[1];
+        holeDepthSum = savedSums[2];
+        hasFilledFullRows = savedSums[3]!=0;
+        stackHeight = (int) savedSums[4];
+    }
+
+
+    //method to remove full rows from the grid (given highest row first), moving the rows between them down by the number of removed rows below them
+    //and leaving empty rows at the top. A full row has a block in every column, so every removed row is at or below each column's topmost block
+    private void removeRows(int[] removedRows, int rowsRemoved){
+        long blocksMoved = 0;   //sum over the blocks that move down of the number of rows they move
+        for(int i=rowsRemoved-1; i>=0; i--){   //lowest row first, so the rows a block is moved into have already been moved or removed
+            int row = removedRows[i];
+            int upperRow = i==0 ? stackHeight : removedRows[i-1];
+            int shift = rowsRemoved - i;
+            for(int word=(row + 1)*wordsPerRow; word<upperRow*wordsPerRow; word++){
+                blocksMoved += (long) shift * Long.bitCount(rows[word]);
+            }
+            System.arraycopy(rows, (row + 1)*wordsPerRow, rows, (row + 1 - shift)*wordsPerRow, (upperRow - row - 1)*wordsPerRow);
+            filledRowSum -= (long) row*width;
+        }
+        Arrays.fill(rows, (stackHeight - rowsRemoved)*wordsPerRow, stackHeight*wordsPerRow, 0);
+        filledRowSum -= blocksMoved;
+        centreDistanceSum -= (long) rowsRemoved*fullRowCentreDistance;
+        int highestRemovedRow = removedRows[0];
+        int newStackHeight = 0;
+        holeDepthSum -= GridKernels.get().columnHoleDepthSum(columnHeights, columnCounts, 0, width);   //every column's hole depths change
+        for(int col=0; col<width; col++){
+            columnCounts[col] -= rowsRemoved;
+            if(columnHeights[col]-1==highestRemovedRow){   //the column's topmost block was in a removed row, so find the next block below it
+                int newHeight = highestRemovedRow + 1 - rowsRemoved;
+                while(newHeight>0 && !isFilled(newHeight-1, col)){
+                    newHeight--;
+                }
+                columnHeights[col] = newHeight;
+            }
+            else{
+                columnHeights[col] -= rowsRemoved;
+            }
+            newStackHeight = Math.max(newStackHeight, columnHeights[col]);
+        }
+        holeDepthSum += GridKernels.get().columnHoleDepthSum(columnHeights, columnCounts, 0, width);
+        stackHeight = newStackHeight;
+    }
+
+
+    //method to update the grid's sums when a block is added at (row, col)
+    private void blockAdded(int row, int col){
+        holeDepthSum -= columnHoleDepth(col);
+        columnCounts[col]++;
+        if(row + 1 > columnHeights[col]){
+            columnHeights[col] = row + 1;
+            stackHeight = Math.max(stackHeight, row + 1);
+        }
+        filledRowSum += row;
+        centreDistanceSum += centreDistances[col];
+        holeDepthSum += columnHoleDepth(col);
+    }
+
+
+    //method to calculate the part of a column's hole depths that does not depend on the rows of its blocks. For a column whose topmost block is at row t,
+    //the depths of its empty cells are sum(t - r) over all rows r below t minus sum(t - r) over the rows of its blocks, which is
+    //t*(t+1)/2 - count*t + (sum of the column's block rows). The last term is added for all columns at once using filledRowSum
+    private long columnHoleDepth(int col){
+        long top = columnHeights[col] - 1;
+        if(top<=0){
+            return 0;
+        }
+        return top*(top + 1)/2 - columnCounts[col]*top;
+    }
+
+
+    //method to get one of the longs storing a row (used to walk through a row's filled cells without checking every cell)
+    long getRowWord(int row, int word){
+        if(row>=stackHeight){
+            return 0;
+        }
+        return rows[row*wordsPerRow + word];
+    }
+
+
+    //method to make sure rows 0 ... rowCount-1 are stored (the storage at least doubles when it grows, up to the grid's height)
+    private void ensureRows(int rowCount){
+        if(rowCount*wordsPerRow>rows.length){
+            int storedRows = Math.min(height, Math.max(rowCount, 2 * rows.length / wordsPerRow));
+            rows = Arrays.copyOf(rows, storedRows*wordsPerRow);
+        }
+    }
+
+    //the three sums that make up a grid's penalty (see TetrisSolver's gridPenalty())
+    long getFilledRowSum(){
+        return filledRowSum;
+    }
+
+    long getCentreDistanceSum(){
+        return centreDistanceSum;
+    }
+
+    long getHoleDepthSum(){
+        return holeDepthSum + filledRowSum;
+    }
+
+    int getColumnHeight(int col){
+        return columnHeights[col];
+    }
+
+    //the heights of all columns (used by LookaheadSearch's placement kernel, which must not modify them)
+    int[] getColumnHeights(){
+        return columnHeights;
+    }
+
+    //the number of blocks in each column (used by the benchmarks' BenchmarkHooks, which must not modify them)
+    int[] getColumnCounts(){
+        return columnCounts;
+    }
+
+    //the grid's row words and the words of a full row (used by the benchmarks' BenchmarkHooks, which must not modify them)
+    long[] getRows(){
+        return rows;
+    }
+
+    long[] getFullRowMask(){
+        return fullRowMask;
+    }
+
+    //the row above the grid's topmost block (0 if the grid is empty)
+    int getStackHeight(){
+        return stackHeight;
+    }
+
+    int getColumnCount(int col){
+        return columnCounts[col];
+    }
+
+    int getCentreDistance(int col){
+        return centreDistances[col];
+    }
+
+    int getWordsPerRow(){
+        return wordsPerRow;
+    }
+
+    int getWidth(){
+        return width;
+    }
+
+    int getHeight(){
+        return height;
+    }
+}
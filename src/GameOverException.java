@@ -0,0 +1,10 @@
+//this exception is thrown by TetrisSolver's placePiece() methods when the piece cannot be placed anywhere in the grid ("GAME OVER").
+//It is an IllegalArgumentException, as the solver's other invalid calls are, so that callers can tell a lost game apart from an invalid call
+//by its type instead of by its message
+public class GameOverException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    GameOverException(){
+        super("GAME OVER: Cannot fit piece placed into current grid configuration!");
+    }
+}
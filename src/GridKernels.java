@@ -0,0 +1,113 @@
+//this class holds the loops over a grid's columns and row words that cost in proportion to the grid's width: the column bounds of a piece's
+//placements (see LookaheadSearch's generatePlacements()), the full and empty row checks (see BitGrid) and the column part of the hole depth sum
+//that TetrisSolver's gridPenalty() is made of (see BitGrid's removeRows()). These methods are the scalar kernels.
+//when the JVM runs with the jdk.incubator.vector module (--add-modules jdk.incubator.vector), get() returns a VectorGridKernels instead,
+//which overrides the kernels with SIMD versions that produce exactly the same results. Without the module (or with -Dtetris.kernels=scalar),
+//loading VectorGridKernels fails and the scalar kernels are used
+public class GridKernels {
+    private static final GridKernels KERNELS = load();
+
+    GridKernels(){
+    }
+
+
+    //the kernels used by the solver's grids and searches
+    static GridKernels get(){
+        return KERNELS;
+    }
+
+
+    private static GridKernels load(){
+        if("scalar".equals(System.getProperty("tetris.kernels"))){
+            return new GridKernels();
+        }
+        GridKernels vectorKernels = vector();
+        return vectorKernels!=null ? vectorKernels : new GridKernels();
+    }
+
+
+    //method to create the SIMD kernels (null if the jdk.incubator.vector module is not present)
+    static GridKernels vector(){
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()){
+            return null;
+        }
+        try{
+            return (GridKernels) Class.forName("VectorGridKernels").getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException | LinkageError e){
+            return null;
+        }
+    }
+
+
+    //method to calculate the bounds of the starting rows of a piece orientation's placements in starting columns fromCol ... toCol-1
+    //(the columns' heights are columnHeights[col] ... columnHeights[col + bottomProfile.length - 1]). For each starting column it stores:
+    //1) restingRows: the lowest row where the orientation does not overlap the columns' topmost blocks
+    //2) lowestValidRows: the lowest row where one of the orientation's columns reaches above its grid column's topmost block
+    //3) alwaysValidRows: the lowest such row of the orientation's columns that have a block below its top row (gridHeight if it has none)
+    //4) highestValidRows: gridHeight if the orientation has a column with a block below its top row, otherwise the highest grid column's height
+    //returns the lowest lowestValidRows and the highest highestValidRows of the columns, packed as (lowest << 32) | highest
+    long columnBounds(int[] columnHeights, int fromCol, int toCol, int[] bottomProfile, int[] supportProfile, int pieceHeight, int gridHeight,
+                      int[] restingRows, int[] lowestValidRows, int[] alwaysValidRows, int[] highestValidRows){
+        int lowestRow = gridHeight;
+        int highestRow = 0;
+        for(int col=fromCol; col<toCol; col++){
+            restingRows[col] = 0;
+            lowestValidRows[col] = gridHeight;
+            alwaysValidRows[col] = gridHeight;
+            highestValidRows[col] = 0;
+            for(int x=0; x<bottomProfile.length; x++){
+                int columnHeight = columnHeights[col + x];
+                restingRows[col] = Math.max(restingRows[col], columnHeight - bottomProfile[x]);
+                int touchingRow = Math.max(0, columnHeight - pieceHeight + 1);   //lowest starting row where the piece's column reaches above the grid column's topmost block
+                lowestValidRows[col] = Math.min(lowestValidRows[col], touchingRow);
+                if(supportProfile[x]!=-1){
+                    alwaysValidRows[col] = Math.min(alwaysValidRows[col], touchingRow);
+                    highestValidRows[col] = gridHeight;
+                }
+                else{   //a column without a block below the piece's top row only keeps the piece from floating up to the grid column's height
+                    highestValidRows[col] = Math.max(highestValidRows[col], columnHeight);
+                }
+            }
+            lowestRow = Math.min(lowestRow, lowestValidRows[col]);
+            highestRow = Math.max(highestRow, highestValidRows[col]);
+        }
+        return ((long) lowestRow << 32) | highestRow;
+    }
+
+
+    //method to check whether words fromWord ... toWord-1 of a row (stored from rows[base]) are all equal to the same words of fullRowMask
+    boolean isRowFull(long[] rows, int base, long[] fullRowMask, int fromWord, int toWord){
+        for(int word=fromWord; word<toWord; word++){
+            if(rows[base + word]!=fullRowMask[word]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    //method to check whether words fromWord ... toWord-1 of a row (stored from rows[base]) are all empty
+    boolean isRowEmpty(long[] rows, int base, int fromWord, int toWord){
+        for(int word=fromWord; word<toWord; word++){
+            if(rows[base + word]!=0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    //method to calculate the sum over columns fromCol ... toCol-1 of the part of their hole depths that does not depend on the rows of their blocks
+    //(see BitGrid's columnHoleDepth()): for a column whose topmost block is at row t > 0, t*(t+1)/2 - count*t
+    long columnHoleDepthSum(int[] columnHeights, int[] columnCounts, int fromCol, int toCol){
+        long sum = 0;
+        for(int col=fromCol; col<toCol; col++){
+            long top = columnHeights[col] - 1;
+            if(top>0){
+                sum += top*(top + 1)/2 - columnCounts[col]*top;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,597 @@
+import java.util.*;
+
+//this class performs TetrisSolver's depth-first lookahead search on a single working grid. Instead of copying the grid for every placement,
+//a placement is applied to the working grid in place and rolled back once its combinations have been searched (the piece's blocks are removed,
+//the rows it cleared are put back, and the grid's penalty sums are restored from a copy saved before the placement).
+//placements are stored as packed longs (orientation, starting row, starting column) in buffers that are reused at each depth (ply) of the search,
+//so once the buffers have grown to fit the grid, searching a node does not allocate any objects.
+//LookaheadSearch is not thread-safe: each thread of a parallel search uses its own LookaheadSearch
+public class LookaheadSearch {
+    private PieceCatalog catalog;   //the puzzle pieces
+    private long sumOfPieceFrequencies;
+    private TranspositionTable transpositionTable;   //null if the table is not used
+    private BitGrid workingGrid;
+    private int gridWidth;
+    private int gridHeight;
+
+    //buffers of each ply of the search
+    private long[][] placements;   //packed placements generated at each ply
+    private int[][] clearedRows;   //rows cleared by the placement applied at each ply
+    private int[][] savedColumnHeights;   //grid sums saved before the placement applied at each ply
+    private int[][] savedColumnCounts;
+    private long[][] savedSums;
+
+    private PlacementBounds placementBounds;   //bounds used while generating placements (shared by all plies since placements are generated before the search goes deeper)
+
+    private long[] storedResult;   //{depth, value} copied from the transposition table
+    private long resultDepth;   //number of placements in the combination of the last search result (-1 denotes that no placement was found)
+
+    //branch-and-bound search state (see searchBounded())
+    private long maxFrequency;   //highest relative frequency of the pieces
+    private int maxRowsCleared;   //most rows a single placement can clear (the height of the tallest orientation)
+    private int maxPieceBlocks;   //most blocks a single placement can add
+    private boolean hasIncumbent;   //whether a combination that reaches the full lookahead has been found
+    private long incumbentValue;   //scaled value (including the initial placement) of the best such combination
+    private boolean resultExact;   //whether the last bounded search result is exact (false if part of its subtree was pruned)
+    private long expandedNodes;   //number of grids whose placements were searched
+    private long prunedNodes;   //number of grids whose placements were skipped because they could not beat the incumbent
+    private long[] replies;   //best placement of each piece found by the bounded search at ply 1 (-1 if none, see SearchContext)
+    private long[][] orderScores;   //scores used to order each ply's placements (best first)
+    private int[][] placementOrder;
+
+    private SearchMetrics metrics;   //null if metrics are not collected
+
+    private boolean hasDeadline;   //whether the search stops when the deadline passes
+    private long deadline;   //System.nanoTime() value the search has to finish by
+    private int nodesUntilClockCheck;   //number of nodes searched before the clock is checked again (reading the clock on every node is too slow)
+    private boolean aborted;   //whether the deadline passed during the search (the results of an aborted search are incomplete and must not be used)
+
+    LookaheadSearch(PieceCatalog catalog, TranspositionTable transpositionTable, BitGrid grid){
+        this.catalog = catalog;
+        sumOfPieceFrequencies = catalog.getSumOfFrequencies();
+        this.transpositionTable = transpositionTable;
+        workingGrid = new BitGrid(grid);
+        gridWidth = grid.getWidth();
+        gridHeight = grid.getHeight();
+        placements = new long[0][];
+        clearedRows = new int[0][];
+        savedColumnHeights = new int[0][];
+        savedColumnCounts = new int[0][];
+        savedSums = new long[0][];
+        placementBounds = new PlacementBounds(gridWidth);
+        storedResult = new long[2];
+        orderScores = new long[0][];
+        placementOrder = new int[0][];
+        replies = new long[catalog.getPieceCount()];
+        for(int j=0; j<catalog.getPieceCount(); j++){
+            maxFrequency = Math.max(maxFrequency, catalog.getRelativeFrequency(j));
+        }
+        maxPieceBlocks = catalog.getMaxBlocks();
+        maxRowsCleared = catalog.getMaxHeight();
+    }
+
+
+    //method to start a new search from a grid (the working grid is overwritten, not reallocated)
+    void setGrid(BitGrid grid){
+        workingGrid.copyFrom(grid);
+    }
+
+
+    //method to find the best combination from the working grid with <remainingLookahead> placements left.
+    //A combination's value is the sum of its placement values weighted by their piece's frequency, minus the penalty of the grid after its last placement,
+    //scaled by the sum of the piece frequencies so that it is exact (see TetrisSolver's placePiece()).
+    //returns the scaled value of the best combination (its number of placements is available from getResultDepth())
+    long search(int remainingLookahead, int ply){
+        if(remainingLookahead==0){
+            resultDepth = 0;
+            return -workingGridPenalty() * sumOfPieceFrequencies;   //the grid's penalty is cheaper to get than its hash, so it is not stored in the table
+        }
+        if(hasDeadline && isPastDeadline()){
+            aborted = true;
+        }
+        if(aborted){
+            return 0;
+        }
+        long tableKey = 0;
+        if(transpositionTable!=null){   //check whether this grid was already searched with the same remaining lookahead
+            tableKey = transpositionTable.hash(workingGrid, remainingLookahead);
+            if(transpositionTable.find(tableKey, storedResult)){
+                if(metrics!=null){
+                    metrics.tableHit();
+                }
+                resultDepth = storedResult[0];
+                return storedResult[1];
+            }
+        }
+        long bestDepth = -1;
+        long bestValue = 0;
+        //iterate over each puzzle piece stored (i.e., each puzzle piece added using addPuzzlePiece)
+        for(int j=0; j<catalog.getPieceCount(); j++){
+            long pieceValue = searchPiece(j, remainingLookahead, ply);
+            if(aborted){
+                return 0;   //incomplete results are not stored in the table
+            }
+            if(TetrisSolver.isBetterLookahead(resultDepth, pieceValue, bestDepth, bestValue)){
+                bestDepth = resultDepth;
+                bestValue = pieceValue;
+            }
+        }
+        if(bestDepth==-1){   //no piece fits in this grid, so the combination ends here
+            bestDepth = 0;
+            bestValue = -workingGridPenalty() * sumOfPieceFrequencies;
+        }
+        if(transpositionTable!=null){
+            transpositionTable.store(tableKey, bestDepth, bestValue);
+        }
+        resultDepth = bestDepth;
+        return bestValue;
+    }
+
+
+    //method to find the best combination that starts by placing a particular piece in the working grid
+    //(if the piece does not fit in the grid, getResultDepth() is -1 after this method returns)
+    long searchPiece(int pieceId, int remainingLookahead, int ply){
+        int placementCount = generatePlacements(pieceId, ply);
+        long bestDepth = -1;
+        long bestValue = 0;
+        for(int i=0; i<placementCount; i++){
+            long placement = placements[ply][i];
+            int rowsCleared = applyPlacement(placement, ply);
+            long lookaheadValue = search(remainingLookahead-1, ply+1);
+            long combinationDepth = resultDepth + 1;
+            long combinationValue = (long) catalog.getRelativeFrequency(pieceId) * TetrisSolver.placementValue(rowsCleared) + lookaheadValue;
+            undoPlacement(placement, ply, rowsCleared);
+            if(aborted){
+                break;
+            }
+            if(TetrisSolver.isBetterLookahead(combinationDepth, combinationValue, bestDepth, bestValue)){
+                bestDepth = combinationDepth;
+                bestValue = combinationValue;
+            }
+        }
+        resultDepth = bestDepth;
+        return bestValue;
+    }
+
+
+    //method to find the best combination from the working grid when the next pieces are known: the next placement is of piece preview[previewIndex],
+    //the one after it of preview[previewIndex+1], and so on. Only those pieces are searched while the preview lasts (each of their placement values is
+    //weighted by the sum of the piece frequencies, since the piece is certain), and the placements left beyond the preview are searched like search()
+    //does, over every piece weighted by its frequency. If a known piece does not fit in the grid, the combination ends there
+    long searchPreview(int[] preview, int previewIndex, int remainingLookahead, int ply){
+        if(remainingLookahead==0 || previewIndex==preview.length){
+            return search(remainingLookahead, ply);
+        }
+        int placementCount = generatePlacements(preview[previewIndex], ply);
+        long bestDepth = -1;
+        long bestValue = 0;
+        for(int i=0; i<placementCount; i++){
+            long placement = placements[ply][i];
+            int rowsCleared = applyPlacement(placement, ply);
+            long lookaheadValue = searchPreview(preview, previewIndex+1, remainingLookahead-1, ply+1);
+            long combinationDepth = resultDepth + 1;
+            long combinationValue = sumOfPieceFrequencies * TetrisSolver.placementValue(rowsCleared) + lookaheadValue;
+            undoPlacement(placement, ply, rowsCleared);
+            if(TetrisSolver.isBetterLookahead(combinationDepth, combinationValue, bestDepth, bestValue)){
+                bestDepth = combinationDepth;
+                bestValue = combinationValue;
+            }
+        }
+        if(bestDepth==-1){   //the known piece does not fit in this grid, so the combination ends here
+            bestDepth = 0;
+            bestValue = -workingGridPenalty() * sumOfPieceFrequencies;
+        }
+        resultDepth = bestDepth;
+        return bestValue;
+    }
+
+
+    long getResultDepth(){
+        return resultDepth;
+    }
+
+
+    //method to start a new branch-and-bound search (forgets the incumbent combination of the previous search)
+    void startBoundedSearch(){
+        hasIncumbent = false;
+    }
+
+
+    //method to make a combination value the incumbent if it is better than the current incumbent. It is used by TetrisSolver when it searches
+    //an initial placement out of order: the value must be the value of a combination that reaches the full lookahead
+    void seedIncumbent(long combinationValue){
+        updateIncumbent(combinationValue);
+    }
+
+
+    //the incumbent's value (only valid if hasIncumbent() is true)
+    long getIncumbentValue(){
+        return incumbentValue;
+    }
+
+    boolean hasIncumbent(){
+        return hasIncumbent;
+    }
+
+
+    //method to forget the replies recorded by the previous bounded search (see SearchContext)
+    void clearReplies(){
+        Arrays.fill(replies, -1);
+    }
+
+
+    //the best placement of a piece found by the last bounded search at ply 1 (-1 if none was found)
+    long getReply(int pieceId){
+        return replies[pieceId];
+    }
+
+
+    //method to find the best combination from the working grid like search(), but skipping the subtrees that cannot beat the incumbent
+    //(the best combination found so far that reaches the full lookahead). <accumulatedValue> is the scaled value of the placements that led to the grid.
+    //A subtree is skipped when an optimistic bound on its best combination (see optimisticValue()) is not higher than the incumbent.
+    //Since only combinations that reach the full lookahead become the incumbent, and those beat every shallower combination, no skipped subtree
+    //could have changed which initial placement is best. Placements are searched in order of their own value minus their grid's penalty (best first),
+    //so that good incumbents are found early.
+    //if part of the subtree was skipped, isResultExact() is false and the result (if any) is a combination that is not better than the incumbent.
+    //If the whole subtree was skipped, getResultDepth() is -1. Like search(), it stops once the deadline passes (see setDeadline())
+    long searchBounded(int remainingLookahead, int ply, long accumulatedValue){
+        resultExact = true;
+        if(remainingLookahead==0){
+            resultDepth = 0;
+            long leafValue = -workingGridPenalty() * sumOfPieceFrequencies;
+            updateIncumbent(accumulatedValue + leafValue);
+            return leafValue;
+        }
+        if(hasDeadline && isPastDeadline()){
+            aborted = true;
+        }
+        if(aborted){
+            return 0;
+        }
+        long tableKey = 0;
+        if(transpositionTable!=null){
+            tableKey = transpositionTable.hash(workingGrid, remainingLookahead);
+            if(transpositionTable.find(tableKey, storedResult)){
+                if(metrics!=null){
+                    metrics.tableHit();
+                }
+                resultDepth = storedResult[0];
+                if(resultDepth==remainingLookahead){
+                    updateIncumbent(accumulatedValue + storedResult[1]);
+                }
+                return storedResult[1];
+            }
+        }
+        if(hasIncumbent && accumulatedValue + optimisticValue(remainingLookahead) <= incumbentValue){
+            prunedNodes++;
+            resultDepth = -1;
+            resultExact = false;
+            return 0;
+        }
+        expandedNodes++;
+        boolean exact = true;
+        long bestDepth = -1;
+        long bestValue = 0;
+        for(int j=0; j<catalog.getPieceCount(); j++){
+            long pieceValue = searchPieceBounded(j, remainingLookahead, ply, accumulatedValue);
+            if(aborted){
+                return 0;   //incomplete results are not stored in the table
+            }
+            exact &= resultExact;
+            if(TetrisSolver.isBetterLookahead(resultDepth, pieceValue, bestDepth, bestValue)){
+                bestDepth = resultDepth;
+                bestValue = pieceValue;
+            }
+        }
+        if(bestDepth==-1 && exact){   //no piece fits in this grid, so the combination ends here
+            bestDepth = 0;
+            bestValue = -workingGridPenalty() * sumOfPieceFrequencies;
+        }
+        if(exact && transpositionTable!=null){   //results of pruned subtrees are not stored since they are not exact
+            transpositionTable.store(tableKey, bestDepth, bestValue);
+        }
+        resultDepth = bestDepth;
+        resultExact = exact;
+        return bestValue;
+    }
+
+
+    //method used by searchBounded() to search the combinations that start by placing a particular piece in the working grid
+    //(if the piece does not fit in the grid, getResultDepth() is -1 and the result is exact)
+    private long searchPieceBounded(int pieceId, int remainingLookahead, int ply, long accumulatedValue){
+        long frequency = catalog.getRelativeFrequency(pieceId);
+        int placementCount = generatePlacements(pieceId, ply);
+        orderPlacements(frequency, placementCount, remainingLookahead>1, ply);
+        boolean exact = true;
+        long bestDepth = -1;
+        long bestValue = 0;
+        long bestPlacement = -1;
+        for(int k=0; k<placementCount; k++){
+            long placement = placements[ply][placementOrder[ply][k]];
+            int rowsCleared = applyPlacement(placement, ply);
+            long placementGain = frequency * TetrisSolver.placementValue(rowsCleared);
+            long lookaheadValue = searchBounded(remainingLookahead-1, ply+1, accumulatedValue + placementGain);
+            long lookaheadDepth = resultDepth;
+            exact &= resultExact;
+            undoPlacement(placement, ply, rowsCleared);
+            if(aborted){
+                break;
+            }
+            if(lookaheadDepth!=-1 && TetrisSolver.isBetterLookahead(lookaheadDepth + 1, placementGain + lookaheadValue, bestDepth, bestValue)){
+                bestDepth = lookaheadDepth + 1;
+                bestValue = placementGain + lookaheadValue;
+                bestPlacement = placement;
+            }
+        }
+        if(ply==1){
+            replies[pieceId] = bestPlacement;
+        }
+        resultDepth = bestDepth;
+        resultExact = exact;
+        return bestValue;
+    }
+
+
+    //method used by searchPieceBounded() to order a ply's placements by their value minus their grid's penalty (best first, ties kept in placement order).
+    //When the placements lead straight to the end of the lookahead (<sort> is false), nothing can be pruned below them, so they are not sorted
+    private void orderPlacements(long frequency, int placementCount, boolean sort, int ply){
+        if(placementOrder[ply].length<placementCount){
+            placementOrder[ply] = new int[placements[ply].length];
+            orderScores[ply] = new long[placements[ply].length];
+        }
+        int[] order = placementOrder[ply];
+        long[] scores = orderScores[ply];
+        for(int i=0; i<placementCount; i++){
+            order[i] = i;
+            if(sort){   //the probes are not search nodes, so they are placed and scored without the metrics of the search's nodes
+                long placement = placements[ply][i];
+                int rowsCleared = place(placement, ply);
+                scores[i] = frequency * TetrisSolver.placementValue(rowsCleared) - TetrisSolver.gridPenalty(workingGrid) * sumOfPieceFrequencies;
+                undoPlacement(placement, ply, rowsCleared);
+            }
+        }
+        if(!sort){
+            return;
+        }
+        if(metrics!=null){
+            metrics.orderingProbes(placementCount);
+        }
+        for(int i=1; i<placementCount; i++){   //insertion sort (stable, and placement counts are small)
+            int placementIndex = order[i];
+            int k = i - 1;
+            while(k>=0 && scores[order[k]]<scores[placementIndex]){
+                order[k+1] = order[k];
+                k--;
+            }
+            order[k+1] = placementIndex;
+        }
+    }
+
+
+    //method used by searchBounded() to find an upper bound on the scaled value of the best combination of <remainingLookahead> placements from the working grid.
+    //1) a row is only cleared once all of its cells are filled, so the remaining placements can clear at most (blocks in the grid + blocks they add) / width rows,
+    //   and a single placement clears at most maxRowsCleared rows. The value is highest when those rows are cleared as few placements as possible
+    //   (since a placement's value doubles with each additional row) by the most frequent piece
+    //2) each column keeps at least (its block count - rows cleared) blocks, which are in different rows and each add at least their distance from the centre,
+    //   so the final grid's penalty is at least the penalty of those blocks stacked from the bottom row with no holes
+    private long optimisticValue(int remainingLookahead){
+        long gridBlocks = 0;
+        for(int col=0; col<gridWidth; col++){
+            gridBlocks += workingGrid.getColumnCount(col);
+        }
+        long rowsCleared = Math.min((gridBlocks + (long) remainingLookahead * maxPieceBlocks) / gridWidth, (long) remainingLookahead * maxRowsCleared);
+        long placementGain = maxFrequency * ((rowsCleared / maxRowsCleared) * TetrisSolver.placementValue(maxRowsCleared) + TetrisSolver.placementValue((int) (rowsCleared % maxRowsCleared)));
+        long penalty = 0;
+        for(int col=0; col<gridWidth; col++){
+            long blocksLeft = workingGrid.getColumnCount(col) - rowsCleared;
+            if(blocksLeft>0){
+                penalty += 10 * (blocksLeft * (blocksLeft - 1) / 2) + workingGrid.getCentreDistance(col) * blocksLeft;
+            }
+        }
+        return placementGain - penalty * sumOfPieceFrequencies;
+    }
+
+
+    private void updateIncumbent(long combinationValue){
+        if(!hasIncumbent || combinationValue>incumbentValue){
+            hasIncumbent = true;
+            incumbentValue = combinationValue;
+        }
+    }
+
+
+    boolean isResultExact(){
+        return resultExact;
+    }
+
+
+    long getExpandedNodes(){
+        return expandedNodes;
+    }
+
+
+    long getPrunedNodes(){
+        return prunedNodes;
+    }
+
+
+    void resetNodeCounts(){
+        expandedNodes = 0;
+        prunedNodes = 0;
+    }
+
+
+    //method to make the following searches stop once System.nanoTime() reaches <deadline> (see isAborted())
+    void setDeadline(long deadline){
+        this.deadline = deadline;
+        hasDeadline = true;
+        nodesUntilClockCheck = 0;
+        aborted = false;
+    }
+
+
+    //method to let the following searches run until they are complete
+    void clearDeadline(){
+        hasDeadline = false;
+        aborted = false;
+    }
+
+
+    //whether a search stopped because its deadline passed (the search's result is then incomplete)
+    boolean isAborted(){
+        return aborted;
+    }
+
+
+    //method used by search() and searchBounded() to check the deadline (the clock is only read once every 1024 nodes)
+    private boolean isPastDeadline(){
+        nodesUntilClockCheck--;
+        if(nodesUntilClockCheck>0){
+            return false;
+        }
+        nodesUntilClockCheck = 1024;
+        return System.nanoTime() - deadline >= 0;
+    }
+
+
+    //method to find all possible placements of a piece (all of its orientations) in the working grid and store them in the ply's placement buffer.
+    //Instead of checking every starting cell cell by cell, the placements are found from the grid's column heights and the orientation's column profiles:
+    //1) the piece rests on the grid's surface at the lowest starting row where none of its columns' lowest blocks are below the grid's column heights.
+    //   Starting rows from there up cannot overlap existing blocks, so only starting rows below it (tucked under overhangs) need an overlap check
+    //2) the placement is valid (does not "float") if one of the piece's columns reaches one row above the topmost block of its grid column,
+    //   or if one of the piece's columns has a block below the piece's top row that is not below its grid column's topmost block
+    //   (that block supports the piece cell above it, which is how placements have always been treated)
+    //returns the number of placements found
+    int generatePlacements(int pieceId, int ply){
+        long startNanos = metrics!=null ? System.nanoTime() : 0;
+        ensurePly(ply);
+        int placementCount = 0;
+        int firstOrientation = catalog.getFirstOrientation(pieceId);
+        int endOrientation = firstOrientation + catalog.getOrientationCount(pieceId);
+        for(int orientation=firstOrientation; orientation<endOrientation; orientation++){
+            placementBounds.calculate(workingGrid, catalog, orientation);
+            int columnOffsets = placementBounds.getColumnOffsets();
+            //check all valid possible placements in current grid config (in the same order as checking each starting cell bottom-up left-to-right)
+            for(int row=placementBounds.getLowestRow(); row<=placementBounds.getHighestRow(); row++){
+                for(int col=0; col<columnOffsets; col++){
+                    if(!placementBounds.isLegal(row, col)){
+                        continue;   //the piece would float or overlap existing blocks with this starting coordinate
+                    }
+                    if(placementCount==placements[ply].length){
+                        placements[ply] = Arrays.copyOf(placements[ply], placementCount*2);
+                    }
+                    placements[ply][placementCount] = packPlacement(orientation, row, col);
+                    placementCount++;
+                }
+            }
+        }
+        if(metrics!=null){
+            metrics.placementsGenerated(ply, placementCount, System.nanoTime() - startNanos);
+        }
+        return placementCount;
+    }
+
+
+    long getPlacement(int ply, int index){
+        return placements[ply][index];
+    }
+
+
+    //method to apply a placement to the working grid (placing the piece and clearing full rows) and return the number of rows cleared.
+    //Everything needed to roll the placement back is saved in the ply's buffers
+    int applyPlacement(long placement, int ply){
+        int rowsCleared = place(placement, ply);
+        if(metrics!=null){
+            metrics.placementApplied(rowsCleared);
+        }
+        return rowsCleared;
+    }
+
+
+    //method used by applyPlacement() and orderPlacements() to apply a placement without counting it in the metrics
+    private int place(long placement, int ply){
+        ensurePly(ply);
+        workingGrid.saveSums(savedColumnHeights[ply], savedColumnCounts[ply], savedSums[ply]);
+        int orientation = placementOrientation(placement);
+        int row = placementRow(placement);
+        workingGrid.place(catalog.getMask(orientation), catalog.getCellOffsets(orientation), row, placementColumn(placement));
+        return workingGrid.removeFullRows(clearedRows[ply], row, row + catalog.getHeight(orientation));   //only the rows the piece touched can be full (see BitGrid)
+    }
+
+
+    //method to roll back a placement applied by applyPlacement() at the same ply
+    void undoPlacement(long placement, int ply, int rowsCleared){
+        workingGrid.restoreFullRows(clearedRows[ply], rowsCleared);
+        workingGrid.remove(catalog.getMask(placementOrientation(placement)), placementRow(placement), placementColumn(placement));
+        workingGrid.restoreSums(savedColumnHeights[ply], savedColumnCounts[ply], savedSums[ply]);
+    }
+
+
+    //method to calculate the penalty of the working grid to score a combination (timed when metrics are collected)
+    int workingGridPenalty(){
+        if(metrics==null){
+            return TetrisSolver.gridPenalty(workingGrid);
+        }
+        long startNanos = System.nanoTime();
+        int penalty = TetrisSolver.gridPenalty(workingGrid);
+        metrics.leafScored(System.nanoTime() - startNanos);
+        return penalty;
+    }
+
+
+    //method to set where the search's metrics are collected (null turns collecting them off)
+    void setMetrics(SearchMetrics metrics){
+        this.metrics = metrics;
+    }
+
+
+    BitGrid getWorkingGrid(){
+        return workingGrid;
+    }
+
+
+    //method to grow the per-ply buffers so that they include <ply> (this only allocates the first time a ply is reached)
+    private void ensurePly(int ply){
+        if(ply<placements.length){
+            return;
+        }
+        int plies = ply + 1;
+        placements = Arrays.copyOf(placements, plies);
+        clearedRows = Arrays.copyOf(clearedRows, plies);
+        savedColumnHeights = Arrays.copyOf(savedColumnHeights, plies);
+        savedColumnCounts = Arrays.copyOf(savedColumnCounts, plies);
+        savedSums = Arrays.copyOf(savedSums, plies);
+        orderScores = Arrays.copyOf(orderScores, plies);
+        placementOrder = Arrays.copyOf(placementOrder, plies);
+        for(int i=0; i<plies; i++){
+            if(placements[i]==null){
+                placements[i] = new long[64];
+                clearedRows[i] = new int[gridHeight];
+                savedColumnHeights[i] = new int[gridWidth];
+                savedColumnCounts[i] = new int[gridWidth];
+                savedSums[i] = new long[5];
+                orderScores[i] = new long[0];
+                placementOrder[i] = new int[0];
+            }
+        }
+    }
+
+
+    //methods to pack a placement into a long and read it back (16 bits of orientation, 24 bits of starting row, 24 bits of starting column).
+    //the orientation is the PieceCatalog's orientation index, so a placement also identifies its piece
+    static long packPlacement(int orientation, int row, int col){
+        return ((long) orientation << 48) | ((long) row << 24) | col;
+    }
+
+    static int placementOrientation(long placement){
+        return (int) (placement >>> 48);
+    }
+
+    static int placementRow(long placement){
+        return (int) (placement >>> 24) & 0xFFFFFF;
+    }
+
+    static int placementColumn(long placement){
+        return (int) placement & 0xFFFFFF;
+    }
+}
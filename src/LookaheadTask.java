@@ -0,0 +1,62 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+//this class is used by TetrisSolver to search the lookahead placements of an initial placement on a ForkJoinPool.
+//a task for an initial placement splits its search into one subtask per puzzle piece (the next piece placed),
+//and each subtask searches the rest of that piece's combinations depth-first on its thread's LookaheadSearch (see TetrisSolver's getWorkerSearch())
+public class LookaheadTask extends RecursiveTask<long[]> {
+    private static final long serialVersionUID = 1L;   //tasks are never serialized, but ForkJoinTask is Serializable
+
+    private TetrisSolver solver;
+    private long initialPlacement;   //packed placement of the first piece (see LookaheadSearch)
+    private int pieceId;   //the next piece placed after the initial placement (-1 denotes that the task is split into one subtask per piece)
+    private int lookahead;
+
+    LookaheadTask(TetrisSolver solver, long initialPlacement, int lookahead){
+        this(solver, initialPlacement, -1, lookahead);
+    }
+
+    private LookaheadTask(TetrisSolver solver, long initialPlacement, int pieceId, int lookahead){
+        this.solver = solver;
+        this.initialPlacement = initialPlacement;
+        this.pieceId = pieceId;
+        this.lookahead = lookahead;
+    }
+
+
+    //returns {number of placements in the best combination, scaled value of that combination} (including the initial placement's value)
+    //subtasks return {-1, 0} if their piece does not fit after the initial placement
+    @Override
+    protected long[] compute(){
+        if(pieceId!=-1){   //subtask: search the combinations that place this task's piece after the initial placement
+            LookaheadSearch search = solver.getWorkerSearch();
+            search.applyPlacement(initialPlacement, 0);
+            long pieceValue = search.searchPiece(pieceId, lookahead, 1);
+            return new long[]{search.getResultDepth(), pieceValue};
+        }
+        List<LookaheadTask> pieceTasks = new ArrayList<>();
+        for(int j=0; j<solver.getPuzzlePieceCount(); j++){
+            pieceTasks.add(new LookaheadTask(solver, initialPlacement, j, lookahead));
+        }
+        invokeAll(pieceTasks);
+        //combine the subtasks' results in piece order (the same order as the sequential search)
+        long bestDepth = -1;
+        long bestValue = 0;
+        for(LookaheadTask pieceTask: pieceTasks){
+            long[] pieceResult = pieceTask.join();
+            if(TetrisSolver.isBetterLookahead(pieceResult[0], pieceResult[1], bestDepth, bestValue)){
+                bestDepth = pieceResult[0];
+                bestValue = pieceResult[1];
+            }
+        }
+        //add the initial placement's value (found by applying it to a working grid, which also gives the grid's penalty if no piece fits after it)
+        LookaheadSearch search = solver.getWorkerSearch();
+        long sumOfPieceFrequencies = solver.sumOfPieceFrequencies();
+        int rowsCleared = search.applyPlacement(initialPlacement, 0);
+        if(bestDepth==-1){   //no piece fits after the initial placement, so the combination ends there
+            bestDepth = 0;
+            bestValue = -search.workingGridPenalty() * sumOfPieceFrequencies;
+        }
+        return new long[]{bestDepth, TetrisSolver.placementValue(rowsCleared) * sumOfPieceFrequencies + bestValue};
+    }
+}
@@ -0,0 +1,217 @@
+import java.util.*;
+
+//this class is a frozen copy of TetrisSolver's puzzle pieces in the form the searches use. It is built once after pieces are added
+//(and rebuilt if another piece is added), so the searches never look pieces up in the boxed map or walk orientation matrices cell by cell.
+//pieces are stored in dense arrays indexed by pieceId, and all orientations of all pieces are numbered consecutively
+//(the orientations of piece p are firstOrientation[p] ... firstOrientation[p] + orientationCounts[p] - 1, in the Tetromino's orientation order).
+//for each orientation, the catalog precomputes:
+//1) its bitboard row masks (see BitGrid's pieceMask())
+//2) the offsets of its blocks, packed as (y << 16) | x, bottom-up left-to-right
+//3) its bottom profile: the lowest block row of each column (used to find where the orientation rests on the grid)
+//4) its top profile: the highest block row of each column
+//5) its support profile: the highest block row below the orientation's top row of each column (-1 if the column has no such block),
+//   which decides whether a placement "floats" (i.e., for the orientation "**\n *" the bottom and support profiles are both {0, 0})
+//the catalog also holds read-only maps of the pieces and of their canonical keys, which every solver that uses the catalog shares (see TetrisSolver)
+public class PieceCatalog {
+    private int pieceCount;
+    private Map<Integer, Tetromino> pieces;   //read-only map <piece id, piece object>
+    private Map<String, Integer> canonicalPieces;   //read-only map <canonical key, piece id>
+    private int[] relativeFrequencies;
+    private long sumOfFrequencies;
+    private double[] normalisedFrequencies;   //each piece's share of the sum of the relative frequencies (the probability that it is the next piece)
+    private long[] cumulativeFrequencies;   //running sum of the relative frequencies (indexed by pieceId) used to draw pieces
+    private int[] firstOrientation;   //index of each piece's first orientation
+    private int[] orientationCounts;
+
+    private int[] orientationPieces;   //pieceId of each orientation
+    private long[][][] masks;
+    private int[][] cellOffsets;
+    private int[][] bottomProfiles;
+    private int[][] topProfiles;
+    private int[][] supportProfiles;
+    private int[] heights;
+    private int[] widths;
+    private int maxHeight;   //height of the tallest orientation
+    private int maxBlocks;   //number of blocks of the largest piece
+
+    PieceCatalog(Tetromino[] pieces){
+        pieceCount = pieces.length;
+        relativeFrequencies = new int[pieceCount];
+        normalisedFrequencies = new double[pieceCount];
+        cumulativeFrequencies = new long[pieceCount];
+        firstOrientation = new int[pieceCount];
+        orientationCounts = new int[pieceCount];
+        Map<Integer, Tetromino> pieceMap = new HashMap<>();
+        Map<String, Integer> canonicalMap = new HashMap<>();
+        int orientationCount = 0;
+        for(int p=0; p<pieceCount; p++){
+            pieceMap.put(p, pieces[p]);
+            canonicalMap.put(pieces[p].getCanonicalKey(), p);
+            relativeFrequencies[p] = pieces[p].getRelativeFrequency();
+            sumOfFrequencies += relativeFrequencies[p];
+            cumulativeFrequencies[p] = sumOfFrequencies;
+            firstOrientation[p] = orientationCount;
+            orientationCounts[p] = pieces[p].getPieceOrientations().size();
+            orientationCount += orientationCounts[p];
+        }
+        this.pieces = Collections.unmodifiableMap(pieceMap);
+        canonicalPieces = Collections.unmodifiableMap(canonicalMap);
+        for(int p=0; p<pieceCount; p++){
+            normalisedFrequencies[p] = (double) relativeFrequencies[p] / sumOfFrequencies;
+        }
+        orientationPieces = new int[orientationCount];
+        masks = new long[orientationCount][][];
+        cellOffsets = new int[orientationCount][];
+        bottomProfiles = new int[orientationCount][];
+        topProfiles = new int[orientationCount][];
+        supportProfiles = new int[orientationCount][];
+        heights = new int[orientationCount];
+        widths = new int[orientationCount];
+        for(int p=0; p<pieceCount; p++){
+            List<int[][]> orientations = pieces[p].getPieceOrientations();
+            for(int k=0; k<orientations.size(); k++){
+                int orientation = firstOrientation[p] + k;
+                orientationPieces[orientation] = p;
+                addOrientation(orientation, orientations.get(k));
+            }
+        }
+    }
+
+
+    //method used by the constructor to precompute the masks, block offsets and column profiles of an orientation
+    private void addOrientation(int orientation, int[][] orientationMatrix){
+        int orientationHeight = orientationMatrix.length;
+        int orientationWidth = orientationMatrix[0].length;
+        heights[orientation] = orientationHeight;
+        widths[orientation] = orientationWidth;
+        masks[orientation] = BitGrid.pieceMask(orientationMatrix);
+        int[] bottomProfile = new int[orientationWidth];
+        int[] topProfile = new int[orientationWidth];
+        int[] supportProfile = new int[orientationWidth];
+        int blocks = 0;
+        for(int x=0; x<orientationWidth; x++){
+            bottomProfile[x] = -1;
+            topProfile[x] = -1;
+            supportProfile[x] = -1;
+            for(int y=0; y<orientationHeight; y++){
+                if(orientationMatrix[y][x]!=1){
+                    continue;
+                }
+                blocks++;
+                if(bottomProfile[x]==-1){
+                    bottomProfile[x] = y;
+                }
+                topProfile[x] = y;
+                if(y<orientationHeight-1){
+                    supportProfile[x] = y;
+                }
+            }
+        }
+        int[] offsets = new int[blocks];
+        int block = 0;
+        for(int y=0; y<orientationHeight; y++){
+            for(int x=0; x<orientationWidth; x++){
+                if(orientationMatrix[y][x]==1){
+                    offsets[block] = (y << 16) | x;
+                    block++;
+                }
+            }
+        }
+        cellOffsets[orientation] = offsets;
+        bottomProfiles[orientation] = bottomProfile;
+        topProfiles[orientation] = topProfile;
+        supportProfiles[orientation] = supportProfile;
+        maxHeight = Math.max(maxHeight, orientationHeight);
+        maxBlocks = Math.max(maxBlocks, blocks);
+    }
+
+
+    //method to draw a pieceId at random, where each piece is drawn in proportion to its relative frequency
+    //(used by SelfPlaySimulator and SessionLoadGenerator to play games without a user)
+    int drawPiece(Random pieceGenerator){
+        long draw = (long) (pieceGenerator.nextDouble() * sumOfFrequencies);
+        int pieceId = 0;
+        while(draw>=cumulativeFrequencies[pieceId]){
+            pieceId++;
+        }
+        return pieceId;
+    }
+
+
+    int getPieceCount(){
+        return pieceCount;
+    }
+
+    Map<Integer, Tetromino> getPieces(){
+        return pieces;
+    }
+
+    Map<String, Integer> getCanonicalPieces(){
+        return canonicalPieces;
+    }
+
+    int getRelativeFrequency(int pieceId){
+        return relativeFrequencies[pieceId];
+    }
+
+    long getSumOfFrequencies(){
+        return sumOfFrequencies;
+    }
+
+    double getNormalisedFrequency(int pieceId){
+        return normalisedFrequencies[pieceId];
+    }
+
+    int getFirstOrientation(int pieceId){
+        return firstOrientation[pieceId];
+    }
+
+    int getOrientationCount(int pieceId){
+        return orientationCounts[pieceId];
+    }
+
+    //number of orientations of all pieces
+    int getTotalOrientations(){
+        return orientationPieces.length;
+    }
+
+    int getOrientationPiece(int orientation){
+        return orientationPieces[orientation];
+    }
+
+    long[][] getMask(int orientation){
+        return masks[orientation];
+    }
+
+    int[] getCellOffsets(int orientation){
+        return cellOffsets[orientation];
+    }
+
+    int[] getBottomProfile(int orientation){
+        return bottomProfiles[orientation];
+    }
+
+    int[] getTopProfile(int orientation){
+        return topProfiles[orientation];
+    }
+
+    int[] getSupportProfile(int orientation){
+        return supportProfiles[orientation];
+    }
+
+    int getHeight(int orientation){
+        return heights[orientation];
+    }
+
+    int getWidth(int orientation){
+        return widths[orientation];
+    }
+
+    int getMaxHeight(){
+        return maxHeight;
+    }
+
+    int getMaxBlocks(){
+        return maxBlocks;
+    }
+}
@@ -0,0 +1,78 @@
+//this class decides which starting coordinates of a piece orientation are legal placements in a grid. calculate() finds the bounds of the
+//orientation's starting rows in each starting column once (see GridKernels' columnBounds()), after which isLegal() checks a starting coordinate
+//against them, falling back to the cell-level checks only for the coordinates the bounds do not decide.
+//it is used by LookaheadSearch's generatePlacements() and by PlacementSpliterator. After calculate(), the bounds are only read, so a calculated
+//object can be shared by threads as long as its grid does not change
+public class PlacementBounds {
+    private BitGrid grid;
+    private long[][] pieceMask;
+    private int[] supportProfile;
+    private int pieceHeight;
+    private int columnOffsets;   //number of starting columns where the orientation fits in the grid
+    private int lowestRow;   //rows of valid starting coordinates (in any starting column)
+    private int highestRow;
+    private int[] restingRows;   //lowest starting row of each starting column where the piece cannot overlap existing blocks
+    private int[] lowestValidRows;   //lowest starting row of each starting column where the piece does not float
+    private int[] alwaysValidRows;   //lowest starting row of each starting column from which the piece never floats
+    private int[] highestValidRows;   //highest starting row of each starting column where the piece does not float
+
+    PlacementBounds(int gridWidth){
+        restingRows = new int[gridWidth];
+        lowestValidRows = new int[gridWidth];
+        alwaysValidRows = new int[gridWidth];
+        highestValidRows = new int[gridWidth];
+    }
+
+
+    //method to calculate the bounds of an orientation's placements in a grid (the grid must not change while the bounds are used)
+    void calculate(BitGrid grid, PieceCatalog catalog, int orientation){
+        this.grid = grid;
+        pieceMask = catalog.getMask(orientation);
+        supportProfile = catalog.getSupportProfile(orientation);
+        pieceHeight = catalog.getHeight(orientation);
+        columnOffsets = grid.getWidth() - catalog.getWidth(orientation) + 1;
+        long rowBounds = GridKernels.get().columnBounds(grid.getColumnHeights(), 0, columnOffsets, catalog.getBottomProfile(orientation), supportProfile,
+                pieceHeight, grid.getHeight(), restingRows, lowestValidRows, alwaysValidRows, highestValidRows);
+        lowestRow = (int) (rowBounds >>> 32);
+        //unless the piece has a block below its top row, the rows that are checked end just above the stack, so tall grids are not scanned to the top
+        highestRow = Math.min((int) rowBounds, grid.getHeight() - pieceHeight);
+    }
+
+
+    //method to check whether the orientation placed with its bottom-left corner at (row, col) is a legal placement:
+    //it neither floats nor overlaps existing blocks
+    boolean isLegal(int row, int col){
+        if(row<lowestValidRows[col] || row>highestValidRows[col] || (row<alwaysValidRows[col] && !isPlacementValid(row, col))){
+            return false;   //the piece would float with this starting coordinate
+        }
+        return row>=restingRows[col] || !grid.overlaps(pieceMask, row, col);
+    }
+
+
+    //method used by isLegal() to check that a piece placement is valid.
+    //Specifically, it checks that the piece isn't "floating" (i.e., it is connected the top of the existing grid configuration or the grid's floor (bottom row)
+    private boolean isPlacementValid(int startingY, int startingX){
+        for(int x=0; x<supportProfile.length; x++){
+            int columnHeight = grid.getColumnHeight(startingX + x);
+            if(startingY + pieceHeight - 1 >= columnHeight && (startingY <= columnHeight || supportProfile[x]!=-1)){
+                return true;   //the piece does not "float" in this placement --> placement is valid
+            }
+        }
+        return false;
+    }
+
+
+    int getColumnOffsets(){
+        return columnOffsets;
+    }
+
+    //lowest starting row of any legal placement
+    int getLowestRow(){
+        return lowestRow;
+    }
+
+    //highest starting row of any legal placement
+    int getHighestRow(){
+        return highestRow;
+    }
+}
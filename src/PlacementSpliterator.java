@@ -0,0 +1,154 @@
+import java.util.*;
+import java.util.function.*;
+
+//this class enumerates the legal placements of a range of piece orientations in a grid lazily, one placement at a time, without building a list
+//of them or a grid for each of them. Placements are packed longs (see LookaheadSearch's packPlacement()) and are visited in the order
+//generatePlacements() stores them: orientation by orientation, each orientation's starting coordinates bottom-up left-to-right.
+//the orientations' bounds (see PlacementBounds) are only calculated when the enumeration reaches them, so a caller that stops early
+//(i.e., after the first N placements, or with a short-circuiting stream operation) does not pay for the rest.
+//trySplit() splits the remaining orientations in half, or the remaining rows of the last orientation, so a parallel stream can enumerate the
+//placements on several threads: the splits share the grid (which is a copy that never changes) and the catalog, which are only read
+public class PlacementSpliterator implements Spliterator.OfLong {
+    private static final int MIN_SPLIT_ROWS = 4;   //fewest rows of a single orientation that are split in two
+
+    private BitGrid grid;
+    private PieceCatalog catalog;
+    private int orientation;   //orientation being enumerated
+    private int endOrientation;   //orientations orientation ... endOrientation-1 remain
+    private PlacementBounds bounds;   //bounds of the orientation being enumerated (shared with a split of its rows)
+    private boolean boundsCalculated;   //whether bounds holds the bounds of the orientation being enumerated
+    private int row;   //next starting coordinate to check
+    private int col;
+    private int endRow;   //highest starting row of the orientation that this spliterator enumerates
+
+    //constructor used to enumerate the placements of orientations fromOrientation ... toOrientation-1 in a grid (the grid must not change
+    //while the placements are enumerated, see TetrisSolver's placementSpliterator(), which gives each enumeration its own copy)
+    PlacementSpliterator(BitGrid grid, PieceCatalog catalog, int fromOrientation, int toOrientation){
+        this.grid = grid;
+        this.catalog = catalog;
+        orientation = fromOrientation;
+        endOrientation = toOrientation;
+    }
+
+
+    @Override
+    public boolean tryAdvance(LongConsumer action){
+        long placement = nextPlacement();
+        if(placement==-1){
+            return false;
+        }
+        action.accept(placement);
+        return true;
+    }
+
+
+    //method to visit the remaining placements until the visitor returns false (used to stop early without a stream).
+    //Returns whether every remaining placement was visited
+    boolean visitRemaining(LongPredicate visitor){
+        long placement;
+        while((placement = nextPlacement())!=-1){
+            if(!visitor.test(placement)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    //method to find the next legal placement (-1 if there are none left)
+    private long nextPlacement(){
+        while(orientation<endOrientation){
+            if(!boundsCalculated){
+                startOrientation();
+            }
+            int columnOffsets = bounds.getColumnOffsets();
+            while(row<=endRow){
+                while(col<columnOffsets){
+                    int placementCol = col;
+                    col++;
+                    if(bounds.isLegal(row, placementCol)){
+                        return LookaheadSearch.packPlacement(orientation, row, placementCol);
+                    }
+                }
+                row++;
+                col = 0;
+            }
+            orientation++;
+            boundsCalculated = false;
+        }
+        return -1;
+    }
+
+
+    //method to calculate the bounds of the orientation the enumeration reached and start at its lowest row
+    private void startOrientation(){
+        if(bounds==null){
+            bounds = new PlacementBounds(grid.getWidth());
+        }
+        bounds.calculate(grid, catalog, orientation);
+        boundsCalculated = true;
+        row = bounds.getLowestRow();
+        col = 0;
+        endRow = bounds.getHighestRow();
+    }
+
+
+    //method to split off the first half of the remaining placements (null if they are too few to split)
+    @Override
+    public Spliterator.OfLong trySplit(){
+        if(endOrientation - orientation>=2){   //the first half of the orientations (with this spliterator's progress in the current one) is split off
+            int middleOrientation = (orientation + endOrientation) >>> 1;
+            PlacementSpliterator prefix = new PlacementSpliterator(grid, catalog, orientation, middleOrientation);
+            prefix.bounds = bounds;
+            prefix.boundsCalculated = boundsCalculated;
+            prefix.row = row;
+            prefix.col = col;
+            prefix.endRow = endRow;
+            orientation = middleOrientation;
+            bounds = null;   //the bounds now belong to the prefix, which recalculates them for its next orientation
+            boundsCalculated = false;
+            return prefix;
+        }
+        if(orientation==endOrientation){
+            return null;
+        }
+        if(!boundsCalculated){
+            startOrientation();
+        }
+        if(endRow - row + 1<MIN_SPLIT_ROWS){
+            return null;
+        }
+        //a single orientation remains, so its rows are split (both halves end with this orientation, so neither recalculates the shared bounds)
+        int middleRow = (row + endRow + 1) >>> 1;
+        PlacementSpliterator prefix = new PlacementSpliterator(grid, catalog, orientation, endOrientation);
+        prefix.bounds = bounds;
+        prefix.boundsCalculated = true;
+        prefix.row = row;
+        prefix.col = col;
+        prefix.endRow = middleRow - 1;
+        row = middleRow;
+        col = 0;
+        return prefix;
+    }
+
+
+    //estimated number of starting coordinates that remain to be checked (an upper bound of the remaining placements if the orientation being
+    //enumerated is the only one left, otherwise an estimate based on the grid's size)
+    @Override
+    public long estimateSize(){
+        if(orientation==endOrientation){
+            return 0;
+        }
+        long remaining = (long) (endOrientation - orientation - 1) * grid.getWidth() * Math.max(1, grid.getStackHeight());
+        if(boundsCalculated){
+            return remaining + Math.max(0, (long) (endRow - row + 1) * bounds.getColumnOffsets() - col);
+        }
+        return remaining + (long) grid.getWidth() * Math.max(1, grid.getStackHeight());
+    }
+
+
+    @Override
+    public int characteristics(){
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+}
@@ -0,0 +1,96 @@
+//this class keeps what TetrisSolver's placePiece() calls carry over from one call to the next:
+//1) the buffers that hold the results of the initial placements (grown when a piece has more placements than before, never shrunk)
+//2) reply ordering for the pruned search: the best placement of each piece found under the placement that was committed (its "reply").
+//   The next call places one of those pieces in exactly the grid they were found in, so the branch-and-bound search (see LookaheadSearch's
+//   searchBounded()) searches the reply first: the reply's subtree was already explored one placement shallower, so it usually gives the best
+//   incumbent, and the other placements are pruned against it
+//the replies are forgotten whenever the grid changes in any other way (see TetrisSolver's commitPlacement() and addPuzzleRow())
+//the explored subtree itself is not kept: its values cannot be reused, since the next call looks one placement deeper than the previous call
+//did below the reply, and the default sequential and parallel searches visit every combination whatever order they are searched in, so they
+//keep no replies either. Only the pruned search (setLookaheadPruning(true)) records and uses them. A solver whose pruning is switched on
+//between calls therefore starts without replies, and its first pruned call searches its placements in plain placement order
+public class SearchContext {
+    private int pieceCount;
+    private long[] lookaheadDepths;   //number of placements in the best combination of each initial placement
+    private long[] lookaheadValues;   //scaled value of the best combination of each initial placement
+    private long[] iterationDepths;   //results of the lookahead being searched by placePieceWithinBudget()
+    private long[] iterationValues;
+    private int[] placementValues;   //value of each initial placement
+    private int[] searchOrder;   //order the initial placements are searched in
+    private long[] rootReplies;   //best placement of each piece found under each initial placement (rootReplies[i*pieceCount + pieceId], -1 if none)
+    private long[] replies;   //best placement of each piece in the current grid (-1 if none)
+    private boolean hasReplies;   //whether replies were found for the current grid
+
+    SearchContext(int pieceCount){
+        this.pieceCount = pieceCount;
+        replies = new long[pieceCount];
+        ensureCapacity(64);
+    }
+
+
+    //method to make sure the buffers can hold the results of <placementCount> initial placements
+    void ensureCapacity(int placementCount){
+        if(lookaheadDepths!=null && lookaheadDepths.length>=placementCount){
+            return;
+        }
+        int capacity = Math.max(placementCount, lookaheadDepths==null ? 0 : lookaheadDepths.length*2);
+        lookaheadDepths = new long[capacity];
+        lookaheadValues = new long[capacity];
+        iterationDepths = new long[capacity];
+        iterationValues = new long[capacity];
+        placementValues = new int[capacity];
+        searchOrder = new int[capacity];
+        rootReplies = new long[capacity*pieceCount];
+    }
+
+
+    //method to record the replies a search found under initial placement <placement> (see LookaheadSearch's getReply())
+    void recordReplies(int placement, LookaheadSearch search){
+        for(int j=0; j<pieceCount; j++){
+            rootReplies[placement*pieceCount + j] = search.getReply(j);
+        }
+    }
+
+
+    //method to keep the replies recorded under the initial placement that was committed, as the replies of the new grid
+    void keepReplies(int placement){
+        System.arraycopy(rootReplies, placement*pieceCount, replies, 0, pieceCount);
+        hasReplies = true;
+    }
+
+
+    //method to forget the replies (used when the grid changes)
+    void clearReplies(){
+        hasReplies = false;
+    }
+
+
+    //the reply of a piece in the current grid (-1 if there is none)
+    long getReply(int pieceId){
+        return hasReplies ? replies[pieceId] : -1;
+    }
+
+    long[] getLookaheadDepths(){
+        return lookaheadDepths;
+    }
+
+    long[] getLookaheadValues(){
+        return lookaheadValues;
+    }
+
+    long[] getIterationDepths(){
+        return iterationDepths;
+    }
+
+    long[] getIterationValues(){
+        return iterationValues;
+    }
+
+    int[] getPlacementValues(){
+        return placementValues;
+    }
+
+    int[] getSearchOrder(){
+        return searchOrder;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.concurrent.atomic.LongAdder;
+
+//this class collects metrics of TetrisSolver's searches when metrics are turned on (see TetrisSolver's setMetricsEnabled()).
+//the counters are LongAdders, so the threads of a parallel search can update them without contending on a single value.
+//the metrics are reset at the start of each placePiece() call, and getLastPlacementMetrics() returns a snapshot of them
+public class SearchMetrics {
+    private LongAdder[] placementsGenerated;   //number of placements generated at each depth of the search (depth 0 is the placed piece)
+    private LongAdder placementsApplied;   //number of placements applied to a grid (each one builds a combination or scores a placement)
+    private LongAdder leavesScored;   //number of grids whose penalty was calculated to score a combination
+    private LongAdder rowsCleared;   //number of rows cleared by the placements applied
+    private LongAdder tableHits;   //number of grids whose result was found in the transposition table
+    private LongAdder orderingProbes;   //number of placements the pruned search applied and scored only to order a ply's placements
+    private LongAdder generationNanos;   //time spent generating placements
+    private LongAdder evaluationNanos;   //time spent calculating penalties of scored grids
+    private long startNanos;
+    private long elapsedNanos;   //duration of the last placePiece() call (0 if it threw an exception)
+
+    SearchMetrics(){
+        placementsGenerated = new LongAdder[0];
+        placementsApplied = new LongAdder();
+        leavesScored = new LongAdder();
+        rowsCleared = new LongAdder();
+        tableHits = new LongAdder();
+        orderingProbes = new LongAdder();
+        generationNanos = new LongAdder();
+        evaluationNanos = new LongAdder();
+    }
+
+
+    //method to reset the metrics at the start of a placePiece() call that searches up to <lookahead> placements after the placed piece
+    void start(int lookahead){
+        if(placementsGenerated.length<lookahead+1){
+            placementsGenerated = new LongAdder[lookahead+1];
+            for(int depth=0; depth<placementsGenerated.length; depth++){
+                placementsGenerated[depth] = new LongAdder();
+            }
+        }
+        else{
+            for(LongAdder depthPlacements: placementsGenerated){
+                depthPlacements.reset();
+            }
+        }
+        placementsApplied.reset();
+        leavesScored.reset();
+        rowsCleared.reset();
+        tableHits.reset();
+        orderingProbes.reset();
+        generationNanos.reset();
+        evaluationNanos.reset();
+        elapsedNanos = 0;
+        startNanos = System.nanoTime();
+    }
+
+
+    //method to record the end of a placePiece() call
+    void finish(){
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+
+    void placementsGenerated(int depth, int placements, long nanos){
+        placementsGenerated[depth].add(placements);
+        generationNanos.add(nanos);
+    }
+
+
+    void placementApplied(int placementRowsCleared){
+        placementsApplied.increment();
+        if(placementRowsCleared>0){
+            rowsCleared.add(placementRowsCleared);
+        }
+    }
+
+
+    void leafScored(long nanos){
+        leavesScored.increment();
+        evaluationNanos.add(nanos);
+    }
+
+
+    void tableHit(){
+        tableHits.increment();
+    }
+
+
+    void orderingProbes(int probes){
+        orderingProbes.add(probes);
+    }
+
+
+    //method to get a copy of the current values of the metrics (the counts are only exact once no search is updating them)
+    SearchMetricsSnapshot snapshot(){
+        long[] placementsPerDepth = new long[placementsGenerated.length];
+        for(int depth=0; depth<placementsPerDepth.length; depth++){
+            placementsPerDepth[depth] = placementsGenerated[depth].sum();
+        }
+        return new SearchMetricsSnapshot(placementsPerDepth, placementsApplied.sum(), leavesScored.sum(), rowsCleared.sum(), tableHits.sum(),
+                orderingProbes.sum(), generationNanos.sum(), evaluationNanos.sum(), elapsedNanos);
+    }
+}
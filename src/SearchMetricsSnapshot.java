@@ -0,0 +1,91 @@
+import java.util.*;
+
+//this class is an immutable copy of the metrics of a placePiece() call (see SearchMetrics)
+public class SearchMetricsSnapshot {
+    private long[] placementsGenerated;
+    private long placementsApplied;
+    private long leavesScored;
+    private long rowsCleared;
+    private long tableHits;
+    private long orderingProbes;
+    private long generationNanos;
+    private long evaluationNanos;
+    private long elapsedNanos;
+
+    SearchMetricsSnapshot(long[] placementsGenerated, long placementsApplied, long leavesScored, long rowsCleared, long tableHits,
+                          long orderingProbes, long generationNanos, long evaluationNanos, long elapsedNanos){
+        this.placementsGenerated = placementsGenerated;
+        this.placementsApplied = placementsApplied;
+        this.leavesScored = leavesScored;
+        this.rowsCleared = rowsCleared;
+        this.tableHits = tableHits;
+        this.orderingProbes = orderingProbes;
+        this.generationNanos = generationNanos;
+        this.evaluationNanos = evaluationNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+
+    //number of placements generated at a depth of the search (depth 0 is the placed piece, depth n is the nth piece after it)
+    long getPlacementsGenerated(int depth){
+        if(depth<0 || depth>=placementsGenerated.length){
+            return 0;
+        }
+        return placementsGenerated[depth];
+    }
+
+    //number of depths that placements were generated at (the call's lookahead + 1)
+    int getDepths(){
+        return placementsGenerated.length;
+    }
+
+    //number of placements applied to a grid (every combination built, and every placement scored)
+    long getPlacementsApplied(){
+        return placementsApplied;
+    }
+
+    //number of grids whose penalty was calculated to score a combination
+    long getLeavesScored(){
+        return leavesScored;
+    }
+
+    //number of rows cleared by the placements applied
+    long getRowsCleared(){
+        return rowsCleared;
+    }
+
+    //number of grids whose result was found in the transposition table instead of being searched
+    long getTableHits(){
+        return tableHits;
+    }
+
+    //number of placements the pruned search applied and scored only to order the placements it searches next (best first).
+    //These probes are not search nodes, so they are not counted as placements applied, rows cleared or leaves scored
+    long getOrderingProbes(){
+        return orderingProbes;
+    }
+
+    //time spent generating placements (summed over all search threads)
+    long getGenerationNanos(){
+        return generationNanos;
+    }
+
+    //time spent calculating the penalties of scored grids (summed over all search threads)
+    long getEvaluationNanos(){
+        return evaluationNanos;
+    }
+
+    //duration of the placePiece() call (0 if the call threw an exception)
+    long getElapsedNanos(){
+        return elapsedNanos;
+    }
+
+
+    @Override
+    public String toString(){
+        return "placementsGenerated=" + Arrays.toString(placementsGenerated) + ", placementsApplied=" + placementsApplied + ", leavesScored=" + leavesScored
+                + ", rowsCleared=" + rowsCleared + ", tableHits=" + tableHits + ", orderingProbes=" + orderingProbes
+                + ", generationNanos=" + generationNanos + ", evaluationNanos=" + evaluationNanos
+                + ", elapsedNanos=" + elapsedNanos;
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+//this class plays many independent games of a TetrisSolver's pieces without a user, to compare piece frequencies and lookahead settings offline.
+//each game starts from an empty grid and repeatedly draws its next piece at random (weighted by the pieces' relative frequencies), placing it with
+//placePiece() until the piece cannot be placed (a GameOverException) or the game reaches the placement limit.
+//games run concurrently on a fixed number of threads. Every game gets its own seeded random generator and its own TetrisSolver that shares the
+//(immutable) pieces of the template solver, so the results of a run only depend on its seed, not on the number of threads or on how games are scheduled
+public class SelfPlaySimulator {
+    private TetrisSolver template;   //solver whose pieces are played (its grid is not used)
+    private int lookahead;
+    private int maxPlacementsPerGame;
+    private PieceCatalog catalog;   //catalog of the template's pieces (shared by every game)
+    private int gameTableSize;   //transposition table size of each game's solver
+
+    SelfPlaySimulator(TetrisSolver template, int lookahead, int maxPlacementsPerGame) throws IllegalArgumentException{
+        if(template.getPuzzlePieceCount()==0){
+            throw new IllegalArgumentException("Template solver has no pieces!");
+        }
+        if(lookahead<0){
+            throw new IllegalArgumentException("Lookahead is negative (invalid)!");
+        }
+        if(maxPlacementsPerGame<1){
+            throw new IllegalArgumentException("Placement limit is less than 1 (invalid)!");
+        }
+        this.template = template;
+        this.lookahead = lookahead;
+        this.maxPlacementsPerGame = maxPlacementsPerGame;
+        catalog = template.getPieceCatalog();
+        gameTableSize = 0;   //every game would allocate (and discard) a table of its own, as SolverService's sessions would
+    }
+
+
+    //method to play <games> games on <threads> threads and return their aggregated results.
+    //Game i draws its pieces from a random generator seeded with <seed> and i
+    SimulationResult run(int games, long seed, int threads) throws IllegalArgumentException{
+        if(games<1){
+            throw new IllegalArgumentException("Number of games is less than 1 (invalid)!");
+        }
+        if(threads<1){
+            throw new IllegalArgumentException("Number of threads is less than 1 (invalid)!");
+        }
+        long[] placements = new long[games];
+        long[] scores = new long[games];
+        long[] rowsCleared = new long[games];
+        boolean[] gameOver = new boolean[games];
+        ExecutorService gamePool = Executors.newFixedThreadPool(threads);
+        long startNanos = System.nanoTime();
+        try{
+            List<Future<?>> gameResults = new ArrayList<>();
+            for(int i=0; i<games; i++){
+                int game = i;
+                gameResults.add(gamePool.submit(() -> playGame(game, seed, placements, scores, rowsCleared, gameOver)));
+            }
+            for(Future<?> gameResult: gameResults){
+                gameResult.get();
+            }
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted!", e);
+        }
+        catch(ExecutionException e){
+            throw new IllegalStateException("Simulated game failed!", e.getCause());
+        }
+        finally{
+            gamePool.shutdownNow();
+        }
+        return new SimulationResult(placements, scores, rowsCleared, gameOver, System.nanoTime() - startNanos);
+    }
+
+
+    //method used by run() to play a single game and store its results at index <game>
+    private void playGame(int game, long seed, long[] placements, long[] scores, long[] rowsCleared, boolean[] gameOver){
+        Random pieceGenerator = new Random(seed * 1_000_003L + game);
+        TetrisSolver solver = new TetrisSolver(template);
+        solver.setTranspositionTableSize(gameTableSize);
+        while(placements[game]<maxPlacementsPerGame){
+            int pieceId = catalog.drawPiece(pieceGenerator);
+            try{
+                solver.placePiece(pieceId, lookahead);
+            }
+            catch(GameOverException e){
+                gameOver[game] = true;
+                return;
+            }
+            placements[game]++;
+            rowsCleared[game] += solver.getLastRowsCleared();
+            scores[game] += TetrisSolver.placementValue(solver.getLastRowsCleared());
+        }
+    }
+
+
+    //method to set the number of entries in the transposition table of each game's solver (0 turns the tables off). A game keeps its table
+    //for all its placements, so a table only pays for itself in games with a lookahead of 2 or more that run for many placements
+    void setGameTranspositionTableSize(int entries) throws IllegalArgumentException{
+        if(entries<0){
+            throw new IllegalArgumentException("Transposition table size is negative (invalid)!");
+        }
+        gameTableSize = entries;
+    }
+}
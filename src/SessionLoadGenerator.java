@@ -0,0 +1,123 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+//this class drives a SolverService with many concurrent sessions to measure its throughput and admission control locally.
+//every session plays a game like SelfPlaySimulator's games: it starts from an empty grid and repeatedly places a piece drawn at random
+//(weighted by the pieces' relative frequencies) until the piece cannot be placed (a GameOverException) or the game reaches the placement limit.
+//the generator plays in rounds: each round queues the next placement of every live session, then waits for them. When the service rejects
+//a placement, the generator waits for the oldest placement it queued in the round and tries again (as a well-behaved client backs off),
+//so each session's pieces (and therefore its game) only depend on the seed, not on the service's threads or its admission limit
+public class SessionLoadGenerator {
+    private SolverService service;
+    private int lookahead;
+    private int maxPlacementsPerSession;
+    private long rejections;   //number of placements the service rejected in the last run
+
+    SessionLoadGenerator(SolverService service, int lookahead, int maxPlacementsPerSession) throws IllegalArgumentException{
+        if(lookahead<0){
+            throw new IllegalArgumentException("Lookahead is negative (invalid)!");
+        }
+        if(maxPlacementsPerSession<1){
+            throw new IllegalArgumentException("Placement limit is less than 1 (invalid)!");
+        }
+        this.service = service;
+        this.lookahead = lookahead;
+        this.maxPlacementsPerSession = maxPlacementsPerSession;
+    }
+
+
+    //method to play a game in each of <sessions> new sessions and return their aggregated results (one game per session).
+    //Session i draws its pieces from a random generator seeded with <seed> and i
+    SimulationResult run(int sessions, long seed) throws IllegalArgumentException{
+        if(sessions<1){
+            throw new IllegalArgumentException("Number of sessions is less than 1 (invalid)!");
+        }
+        PieceCatalog catalog = service.getPieceCatalog();
+        long[] sessionIds = new long[sessions];
+        Random[] pieceGenerators = new Random[sessions];
+        long[] placements = new long[sessions];
+        long[] scores = new long[sessions];
+        long[] rowsCleared = new long[sessions];
+        boolean[] gameOver = new boolean[sessions];
+        List<CompletableFuture<Integer>> roundPlacements = new ArrayList<>();
+        List<CompletableFuture<Integer>> roundRowsCleared = new ArrayList<>();
+        int[] roundSessions = new int[sessions];   //session of each placement queued in the round
+        rejections = 0;
+        long startNanos = System.nanoTime();
+        for(int i=0; i<sessions; i++){
+            sessionIds[i] = service.openSession();
+            pieceGenerators[i] = new Random(seed * 1_000_003L + i);
+        }
+        boolean[] live = new boolean[sessions];
+        Arrays.fill(live, true);
+        int liveSessions = sessions;
+        while(liveSessions>0){
+            roundPlacements.clear();
+            roundRowsCleared.clear();
+            int waited = 0;   //placements of the round that were already waited for
+            for(int i=0; i<sessions; i++){
+                if(!live[i]){
+                    continue;
+                }
+                int pieceId = catalog.drawPiece(pieceGenerators[i]);
+                while(true){
+                    try{
+                        roundPlacements.add(service.placePiece(sessionIds[i], pieceId, lookahead));
+                        break;
+                    }
+                    catch(RejectedExecutionException e){
+                        rejections++;
+                        if(waited<roundPlacements.size()){
+                            awaitPlacement(roundPlacements.get(waited));   //back off until the oldest queued placement is done
+                            waited++;
+                        }
+                        else{
+                            Thread.yield();   //the searches that are queued belong to another client of the service
+                        }
+                    }
+                }
+                roundRowsCleared.add(service.getLastRowsCleared(sessionIds[i]));
+                roundSessions[roundPlacements.size()-1] = i;
+            }
+            for(int j=0; j<roundPlacements.size(); j++){
+                int i = roundSessions[j];
+                if(!awaitPlacement(roundPlacements.get(j))){
+                    gameOver[i] = true;
+                }
+                else{
+                    int cleared = roundRowsCleared.get(j).join();
+                    placements[i]++;
+                    rowsCleared[i] += cleared;
+                    scores[i] += TetrisSolver.placementValue(cleared);
+                }
+                if(gameOver[i] || placements[i]==maxPlacementsPerSession){
+                    live[i] = false;
+                    liveSessions--;
+                    service.closeSession(sessionIds[i]);
+                }
+            }
+        }
+        return new SimulationResult(placements, scores, rowsCleared, gameOver, System.nanoTime() - startNanos);
+    }
+
+
+    //method to wait for a queued placement and return whether the piece was placed (false if it was a GameOverException)
+    private boolean awaitPlacement(CompletableFuture<Integer> placement){
+        try{
+            placement.join();
+            return true;
+        }
+        catch(CompletionException e){
+            if(e.getCause() instanceof GameOverException){
+                return false;
+            }
+            throw new IllegalStateException("Session placement failed!", e.getCause());
+        }
+    }
+
+
+    //number of placements the service rejected in the last run (each was tried again once the service had room for it)
+    long getRejections(){
+        return rejections;
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.*;
+
+//this class holds the results of a SelfPlaySimulator run: each game's number of placements (its length), score (points earned by clearing rows)
+//and rows cleared, with aggregate throughput and distributions over the games
+public class SimulationResult {
+    private long[] placements;
+    private long[] scores;
+    private long[] rowsCleared;
+    private boolean[] gameOver;   //whether each game ended because a piece could not be placed (false if it reached the placement limit)
+    private long elapsedNanos;
+    private long[] sortedPlacements;   //sorted copies used for the distributions
+    private long[] sortedScores;
+
+    SimulationResult(long[] placements, long[] scores, long[] rowsCleared, boolean[] gameOver, long elapsedNanos){
+        this.placements = placements;
+        this.scores = scores;
+        this.rowsCleared = rowsCleared;
+        this.gameOver = gameOver;
+        this.elapsedNanos = elapsedNanos;
+        sortedPlacements = placements.clone();
+        Arrays.sort(sortedPlacements);
+        sortedScores = scores.clone();
+        Arrays.sort(sortedScores);
+    }
+
+
+    int getGames(){
+        return placements.length;
+    }
+
+    long getGamePlacements(int game){
+        return placements[game];
+    }
+
+    long getGameScore(int game){
+        return scores[game];
+    }
+
+    long getGameRowsCleared(int game){
+        return rowsCleared[game];
+    }
+
+    boolean isGameOver(int game){
+        return gameOver[game];
+    }
+
+    //number of games that ended because a piece could not be placed
+    int getGamesOver(){
+        int gamesOver = 0;
+        for(boolean over: gameOver){
+            if(over){
+                gamesOver++;
+            }
+        }
+        return gamesOver;
+    }
+
+    long getTotalPlacements(){
+        long totalPlacements = 0;
+        for(long gamePlacements: placements){
+            totalPlacements += gamePlacements;
+        }
+        return totalPlacements;
+    }
+
+    long getElapsedNanos(){
+        return elapsedNanos;
+    }
+
+    //number of pieces placed per second over all games
+    double getPlacementsPerSecond(){
+        return elapsedNanos==0 ? 0 : getTotalPlacements() * 1e9 / elapsedNanos;
+    }
+
+    double getMeanPlacements(){
+        return mean(placements);
+    }
+
+    double getMeanScore(){
+        return mean(scores);
+    }
+
+    //game length (number of placements) at a percentile from 0 to 100 (nearest rank)
+    long getPlacementsPercentile(double percentile) throws IllegalArgumentException{
+        return percentile(sortedPlacements, percentile);
+    }
+
+    //game score at a percentile from 0 to 100 (nearest rank)
+    long getScorePercentile(double percentile) throws IllegalArgumentException{
+        return percentile(sortedScores, percentile);
+    }
+
+
+    @Override
+    public String toString(){
+        return String.format("games=%d (game over=%d), placements/sec=%.1f%n", getGames(), getGamesOver(), getPlacementsPerSecond())
+                + distribution("length", sortedPlacements, getMeanPlacements()) + String.format("%n")
+                + distribution("score", sortedScores, getMeanScore());
+    }
+
+
+    private String distribution(String name, long[] sortedValues, double mean){
+        return String.format("%s: min=%d p50=%d p90=%d p99=%d max=%d mean=%.1f", name, sortedValues[0], percentile(sortedValues, 50),
+                percentile(sortedValues, 90), percentile(sortedValues, 99), sortedValues[sortedValues.length-1], mean);
+    }
+
+
+    private static double mean(long[] values){
+        double sum = 0;
+        for(long value: values){
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+
+    private static long percentile(long[] sortedValues, double percentile) throws IllegalArgumentException{
+        if(percentile<0 || percentile>100){
+            throw new IllegalArgumentException("Percentile is not between 0 and 100 (invalid)!");
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sortedValues.length);
+        return sortedValues[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+//this class hosts many concurrent games (sessions) in one process. Every session is created from the pieces of one template solver, which are
+//validated and rotated once when they are added to the template: a session's TetrisSolver shares the template's pieces and PieceCatalog
+//instead of adding the pieces again (see TetrisSolver's copy constructor).
+//the addPuzzleRow(), placePiece() and showPuzzle() calls of a session are routed to the session's own solver and run on the service's executor,
+//one at a time per session (see SolverSession), so no session ever sees another session's grid or search state.
+//searches are admitted only while fewer than maxQueuedSearches placePiece() calls are queued or running over all sessions. A placePiece() call
+//made beyond that limit is rejected right away with a RejectedExecutionException, so that a burst of requests cannot build an unbounded backlog
+public class SolverService {
+    private TetrisSolver template;   //solver whose pieces are played by every session (its grid is not used, and its pieces must not change)
+    private ExecutorService executor;   //executor the sessions' calls run on
+    private boolean ownsExecutor;   //whether the executor was created by the service (and is shut down by shutdown())
+    private int maxQueuedSearches;
+    private int sessionTableSize;   //transposition table size of the solvers of new sessions
+    private ConcurrentHashMap<Long, SolverSession> sessions;
+    private AtomicLong nextSessionId;
+    private AtomicInteger queuedSearches;   //number of placePiece() calls queued or running
+    private AtomicLong rejectedSearches;   //number of placePiece() calls rejected by admission control
+
+    //constructor used to run the sessions' calls on <threads> threads (searches are CPU-bound, so more threads than cores do not place pieces faster)
+    SolverService(TetrisSolver template, int threads, int maxQueuedSearches) throws IllegalArgumentException{
+        this(template, createExecutor(threads), maxQueuedSearches);
+        ownsExecutor = true;
+    }
+
+
+    //constructor used to run the sessions' calls on an existing executor (i.e., an executor of virtual threads on a JDK that has them).
+    //The executor is not shut down by shutdown()
+    SolverService(TetrisSolver template, ExecutorService executor, int maxQueuedSearches) throws IllegalArgumentException{
+        if(template.getPuzzlePieceCount()==0){
+            throw new IllegalArgumentException("Template solver has no pieces!");
+        }
+        if(maxQueuedSearches<1){
+            throw new IllegalArgumentException("Maximum number of queued searches is less than 1 (invalid)!");
+        }
+        this.template = template;
+        this.executor = executor;
+        this.maxQueuedSearches = maxQueuedSearches;
+        template.getPieceCatalog();   //build the catalog once, before the sessions share it
+        sessionTableSize = 0;   //a table per session would take megabytes of memory for each of thousands of sessions
+        sessions = new ConcurrentHashMap<>();
+        nextSessionId = new AtomicLong();
+        queuedSearches = new AtomicInteger();
+        rejectedSearches = new AtomicLong();
+    }
+
+
+    private static ExecutorService createExecutor(int threads) throws IllegalArgumentException{
+        if(threads<1){
+            throw new IllegalArgumentException("Number of threads is less than 1 (invalid)!");
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+
+
+    //method to start a new game (an empty grid with the template's pieces) and return its sessionId
+    long openSession(){
+        TetrisSolver solver = new TetrisSolver(template);
+        solver.setTranspositionTableSize(sessionTableSize);
+        long sessionId = nextSessionId.getAndIncrement();
+        sessions.put(sessionId, new SolverSession(sessionId, solver));
+        return sessionId;
+    }
+
+
+    //method to end a game. Calls that were already queued for the session still run
+    void closeSession(long sessionId) throws IllegalArgumentException{
+        if(sessions.remove(sessionId)==null){
+            throw new IllegalArgumentException("Session does not exist!");
+        }
+    }
+
+
+    //method to queue a TetrisSolver addPuzzleRow() call for a session
+    CompletableFuture<Void> addPuzzleRow(long sessionId, String nextRow) throws IllegalArgumentException{
+        return getSession(sessionId).enqueue(solver -> {
+            solver.addPuzzleRow(nextRow);
+            return null;
+        }, executor);
+    }
+
+
+    //method to queue a TetrisSolver placePiece() call for a session. The future completes with the placement's value, or exceptionally with
+    //the solver's IllegalArgumentException (a GameOverException if the piece cannot be placed). Throws a RejectedExecutionException if too many searches are already queued
+    CompletableFuture<Integer> placePiece(long sessionId, int pieceId, int lookahead) throws IllegalArgumentException, RejectedExecutionException{
+        SolverSession session = getSession(sessionId);
+        if(queuedSearches.incrementAndGet()>maxQueuedSearches){
+            queuedSearches.decrementAndGet();
+            rejectedSearches.incrementAndGet();
+            throw new RejectedExecutionException("Too many searches are queued (request rejected)!");
+        }
+        //the search's slot is released exactly once, whether the search ran, was cancelled before it started or was rejected by the executor
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable releaseSlot = () -> {
+            if(released.compareAndSet(false, true)){
+                queuedSearches.decrementAndGet();
+            }
+        };
+        CompletableFuture<Integer> result;
+        try{
+            result = session.enqueue(solver -> {
+                try{
+                    return solver.placePiece(pieceId, lookahead);
+                }
+                finally{
+                    releaseSlot.run();   //released before the future completes, so a caller that waited on it can be admitted again
+                }
+            }, executor);
+        }
+        catch(RuntimeException e){
+            releaseSlot.run();
+            throw e;
+        }
+        result.whenComplete((value, exception) -> releaseSlot.run());
+        return result;
+    }
+
+
+    //method to queue a TetrisSolver showPuzzle() call for a session (the grid is shown as it is after the session's previous calls)
+    CompletableFuture<String> showPuzzle(long sessionId) throws IllegalArgumentException{
+        return getSession(sessionId).enqueue(TetrisSolver::showPuzzle, executor);
+    }
+
+
+    //method to queue a call for the number of rows cleared by the session's last placed piece
+    CompletableFuture<Integer> getLastRowsCleared(long sessionId) throws IllegalArgumentException{
+        return getSession(sessionId).enqueue(TetrisSolver::getLastRowsCleared, executor);
+    }
+
+
+    private SolverSession getSession(long sessionId) throws IllegalArgumentException{
+        SolverSession session = sessions.get(sessionId);
+        if(session==null){
+            throw new IllegalArgumentException("Session does not exist!");
+        }
+        return session;
+    }
+
+
+    //method to set the number of entries in the transposition table of each session opened afterwards (0 turns the tables off)
+    void setSessionTranspositionTableSize(int entries) throws IllegalArgumentException{
+        if(entries<0){
+            throw new IllegalArgumentException("Transposition table size is negative (invalid)!");
+        }
+        sessionTableSize = entries;
+    }
+
+
+    //method to stop the service's threads (if it created them) once the queued calls finished. No session can be used afterwards
+    void shutdown(){
+        if(ownsExecutor){
+            executor.shutdown();
+        }
+        sessions.clear();
+    }
+
+
+    PieceCatalog getPieceCatalog(){
+        return template.getPieceCatalog();
+    }
+
+    int getSessionCount(){
+        return sessions.size();
+    }
+
+    int getQueuedSearches(){
+        return queuedSearches.get();
+    }
+
+    long getRejectedSearches(){
+        return rejectedSearches.get();
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+//this class holds the state of one game hosted by a SolverService: its own TetrisSolver (which shares the immutable pieces of the service's template)
+//and the queue of calls made to it. TetrisSolver is not thread-safe, so the calls of a session run one at a time in the order they were made:
+//each call is chained after the previous one, and runs on the service's executor once the previous call finished (normally or not).
+//Different sessions never share mutable state, so their calls run concurrently
+public class SolverSession {
+    private long sessionId;
+    private TetrisSolver solver;
+    private CompletableFuture<Void> lastCall;   //completes when the session's last queued call finished (whether it failed or not)
+
+    SolverSession(long sessionId, TetrisSolver solver){
+        this.sessionId = sessionId;
+        this.solver = solver;
+        lastCall = CompletableFuture.completedFuture(null);
+    }
+
+
+    //method to queue a call to the session's solver behind the session's previous calls. The returned future completes with the call's result,
+    //or exceptionally with the exception the call threw (i.e., the GameOverException of a piece that cannot be placed). It also completes exceptionally
+    //without running the call if it is cancelled before the call starts, or if the executor rejects the call.
+    //the next call waits for this call to finish running, not for the returned future: a future cancelled while its call runs completes
+    //right away, but the solver is still in use until the call returns
+    synchronized <T> CompletableFuture<T> enqueue(Function<TetrisSolver, T> call, Executor executor){
+        AtomicBoolean claimed = new AtomicBoolean();   //set by whichever comes first: the call starting, or the future completing without it
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        CompletableFuture<T> result = lastCall.thenApplyAsync(previous -> {
+            if(!claimed.compareAndSet(false, true)){
+                throw new CancellationException();   //the future was completed before the call started (its result is discarded)
+            }
+            try{
+                return call.apply(solver);
+            }
+            finally{
+                finished.complete(null);
+            }
+        }, executor);
+        result.whenComplete((value, exception) -> {
+            if(claimed.compareAndSet(false, true)){   //the call never started and never will
+                finished.complete(null);
+            }
+        });
+        lastCall = finished;   //a failed call does not stop the calls queued after it
+        return result;
+    }
+
+
+    long getSessionId(){
+        return sessionId;
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.*;
+
+//this class encodes and decodes the compact binary format TetrisSolver's snapshot() and restore() use to move a game between processes.
+//numbers are written as varints (7 bits per byte, lowest bits first, the high bit set on every byte but the last) and grid rows and piece
+//matrices are bit-packed (8 cells per byte, row-major, lowest bit first), so a snapshot of a 10x40 board is well under a hundred bytes plus its pieces.
+//Format (version 1):
+//1) the magic byte 'T' and the version byte
+//2) the grid's width and height
+//3) the number of rows up to the grid's topmost non-empty row, followed by those rows bottom-up (ceil(width/8) bytes each)
+//4) the number of pieces, followed by each piece (in pieceId order) as its relative frequency, its matrix, its canonical orientation
+//   (see Tetromino) and its orientations (count followed by each matrix), where a matrix is its height and width followed by its cells
+//A snapshot object is either being written (created with no bytes) or read (created from the bytes of a snapshot)
+public class SolverSnapshot {
+    static final int MAGIC = 'T';
+    static final int VERSION = 1;
+    static final int MAX_WIDTH = 1 << 16;   //widest grid a snapshot can hold (a grid allocates its per-column arrays when it is created, so a corrupt width
+                                            //is bounded well below the 24 bits placements store, while rows are only stored up to the stack, see BitGrid)
+    static final int MAX_HEIGHT = (1 << 24) - 1;   //placements store rows in 24 bits (see LookaheadSearch)
+
+    private byte[] bytes;
+    private int position;   //next byte written or read
+
+    //constructor used to write a snapshot
+    SolverSnapshot(){
+        bytes = new byte[64];
+    }
+
+
+    //constructor used to read a snapshot
+    SolverSnapshot(byte[] bytes) throws IllegalArgumentException{
+        if(bytes==null){
+            throw new IllegalArgumentException("Snapshot is null!");
+        }
+        this.bytes = bytes;
+        if(readByte()!=MAGIC || readByte()!=VERSION){
+            throw new IllegalArgumentException("Snapshot format is not supported!");
+        }
+    }
+
+
+    //method to start a new snapshot (written before anything else)
+    void writeHeader(){
+        writeByte(MAGIC);
+        writeByte(VERSION);
+    }
+
+
+    void writeVarint(int value){
+        while((value & ~0x7F)!=0){
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+
+    int readVarint() throws IllegalArgumentException{
+        int value = 0;
+        for(int shift=0; shift<32; shift+=7){
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80)==0){
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Snapshot is corrupt (varint too long)!");
+    }
+
+
+    //method to read a varint that has to be between min and max (used for dimensions and counts, which together with checkAvailable() keeps a corrupt
+    //snapshot from allocating huge arrays)
+    int readVarint(int min, int max) throws IllegalArgumentException{
+        int value = readVarint();
+        if(value<min || value>max){
+            throw new IllegalArgumentException("Snapshot is corrupt (value out of range)!");
+        }
+        return value;
+    }
+
+
+    //method to write a row of a grid (the row's words, see BitGrid's getRowWord()) as ceil(width/8) bytes
+    void writeGridRow(BitGrid grid, int row){
+        int width = grid.getWidth();
+        for(int byteIndex=0; byteIndex<(width + 7)/8; byteIndex++){
+            long word = grid.getRowWord(row, byteIndex >>> 3);
+            writeByte((int) (word >>> ((byteIndex & 7)*8)) & 0xFF);
+        }
+    }
+
+
+    //method to read a row written by writeGridRow() and fill its cells in the grid
+    void readGridRow(BitGrid grid, int row) throws IllegalArgumentException{
+        int width = grid.getWidth();
+        for(int byteIndex=0; byteIndex<(width + 7)/8; byteIndex++){
+            int bits = readByte();
+            while(bits!=0){
+                int col = byteIndex*8 + Integer.numberOfTrailingZeros(bits);
+                if(col>=width){
+                    throw new IllegalArgumentException("Snapshot is corrupt (block outside the grid)!");
+                }
+                grid.fill(row, col);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+
+    //method to write a piece matrix (1 = piece block, 0 = empty space) as its height, width and bit-packed cells
+    void writeMatrix(int[][] matrix){
+        int matrixHeight = matrix.length;
+        int matrixWidth = matrix[0].length;
+        writeVarint(matrixHeight);
+        writeVarint(matrixWidth);
+        int bits = 0;
+        int bitCount = 0;
+        for(int[] matrixRow: matrix){
+            for(int cell: matrixRow){
+                bits |= cell << bitCount;
+                bitCount++;
+                if(bitCount==8){
+                    writeByte(bits);
+                    bits = 0;
+                    bitCount = 0;
+                }
+            }
+        }
+        if(bitCount>0){
+            writeByte(bits);
+        }
+    }
+
+
+    //method to read a matrix written by writeMatrix() that fits in a gridHeight x gridWidth grid, either as it is or (if rotatable) turned by 90 degrees
+    //(a piece's matrix only has to fit the grid in one of its rotations). The matrix is only allocated once the snapshot is known to hold its cells
+    int[][] readMatrix(int gridHeight, int gridWidth, boolean rotatable) throws IllegalArgumentException{
+        int matrixHeight = readVarint(1, rotatable ? Math.max(gridHeight, gridWidth) : gridHeight);
+        int matrixWidth = readVarint(1, rotatable ? Math.max(gridHeight, gridWidth) : gridWidth);
+        boolean fits = matrixHeight<=gridHeight && matrixWidth<=gridWidth;
+        boolean fitsRotated = matrixWidth<=gridHeight && matrixHeight<=gridWidth;
+        if(!fits && !(rotatable && fitsRotated)){
+            throw new IllegalArgumentException("Snapshot is corrupt (piece does not fit in the grid)!");
+        }
+        checkAvailable(((long) matrixHeight*matrixWidth + 7)/8);
+        int[][] matrix = new int[matrixHeight][matrixWidth];
+        int bits = 0;
+        int bitCount = 0;
+        for(int[] matrixRow: matrix){
+            for(int x=0; x<matrixWidth; x++){
+                if(bitCount==0){
+                    bits = readByte();
+                    bitCount = 8;
+                }
+                matrixRow[x] = bits & 1;
+                bits >>>= 1;
+                bitCount--;
+            }
+        }
+        return matrix;
+    }
+
+
+    //method to check that a read snapshot has at least <byteCount> bytes left (used before allocating what those bytes are read into)
+    void checkAvailable(long byteCount) throws IllegalArgumentException{
+        if(byteCount>bytes.length - position){
+            throw new IllegalArgumentException("Snapshot is corrupt (unexpected end)!");
+        }
+    }
+
+
+    //method to check that a read snapshot has no bytes left over
+    void checkFullyRead() throws IllegalArgumentException{
+        if(position!=bytes.length){
+            throw new IllegalArgumentException("Snapshot is corrupt (unexpected trailing bytes)!");
+        }
+    }
+
+
+    //method to get the bytes written so far
+    byte[] toByteArray(){
+        return Arrays.copyOf(bytes, position);
+    }
+
+
+    private void writeByte(int b){
+        if(position==bytes.length){
+            bytes = Arrays.copyOf(bytes, bytes.length*2);
+        }
+        bytes[position] = (byte) b;
+        position++;
+    }
+
+    private int readByte() throws IllegalArgumentException{
+        if(position>=bytes.length){
+            throw new IllegalArgumentException("Snapshot is corrupt (unexpected end)!");
+        }
+        int b = bytes[position] & 0xFF;
+        position++;
+        return b;
+    }
+}
@@ -1,4 +1,9 @@
+import java.io.*;
+import java.nio.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
 
 public class TetrisSolver{
 
@@ -6,8 +11,27 @@ public class TetrisSolver{
     private int width;   //grid width
     private String checkEmptyRow;   //string of width length spaces (i.e., "   ") to check if rows are empty
     private String checkFullRow;   //string of width length chars (i.e., "****") to check if rows are full
-    private Map<Integer, Tetromino> puzzlePieces;   //map to store <piece id, piece object>
-    private char[][] grid;   //2d matrix to store the Tetris grid
+    private char[] rowChars;   //chars of the row being written by showPuzzle() (reused by every call)
+    private Map<Integer, Tetromino> puzzlePieces;   //map to store <piece id, piece object> (used to add pieces, the searches use pieceCatalog)
+    private Map<String, Integer> canonicalPieces;   //map to store <canonical key, piece id> of the puzzle pieces (see Tetromino), used to find duplicates
+    private boolean piecesReadOnly;   //whether the two maps above are read-only (empty, or shared with pieceCatalog) and must be copied before a piece is stored
+    private PieceCatalog pieceCatalog;   //frozen copy of the puzzle pieces used by the searches (built when it is first needed after a piece is added)
+    private BitGrid grid;   //bitboard to store the Tetris grid
+    private int transpositionTableSize;   //number of entries the lookahead transposition table can hold (0 denotes that the table is not used)
+    private TranspositionTable transpositionTable;   //stores the best lookahead combination of grids that were already searched (created on the first lookahead search)
+    private int searchParallelism;   //number of threads used to search lookahead placements (1 denotes a sequential search)
+    private ForkJoinPool searchPool;   //pool of the threads used to search lookahead placements (created on the first parallel search)
+    private LookaheadSearch lookaheadSearch;   //search (working grid and buffers) reused by each placePiece() call
+    private ThreadLocal<LookaheadSearch> workerSearches;   //search of each thread of the parallel search, reused by every LookaheadTask the thread runs
+    private SearchContext searchContext;   //buffers and the pruned search's replies carried over between placePiece() calls (created when it is first needed after pieces are added)
+    private boolean lookaheadPruning;   //whether placePiece() prunes lookahead combinations that cannot beat the best combination found so far
+    private long expandedNodes;   //node counts of the last placePiece() call with pruning on
+    private long prunedNodes;
+    private SearchMetrics searchMetrics;   //metrics of the last placePiece() call (null if metrics are not collected)
+    private boolean lastCallMetered;   //whether a placePiece() call was made since metrics were turned on
+    private int lastRowsCleared;   //number of rows cleared by the last piece placed
+    private int completedLookahead;   //lookahead of the last search completed by placePieceWithinBudget()
+    private BeamSearch beamSearch;   //beam search (path grids and buffers) reused by each beam search placePiece() call
 
     TetrisSolver(int width, int height) throws IllegalArgumentException{
         if(width<1 || height<1){
@@ -15,47 +39,189 @@ public class TetrisSolver{
         }
         this.height = height;
         this.width = width;
-        grid = new char[height][width];   //instantiate grid
-        //fill initial grid's cells with spaces (denotes empty cells)
-        for(int row=0; row<height; row++){
-            for(int col=0; col<width; col++){
-                grid[row][col] = ' ';
+        grid = new BitGrid(width, height);   //instantiate grid (all cells start empty)
+        //create strings to check if a row is empty or full based on the width of the grid
+        checkEmptyRow = " ".repeat(width);
+        checkFullRow = "*".repeat(width);
+        rowChars = new char[width];
+        puzzlePieces = Collections.emptyMap();
+        canonicalPieces = Collections.emptyMap();
+        piecesReadOnly = true;
+        transpositionTableSize = 1 << 16;
+        searchParallelism = 1;
+        workerSearches = new ThreadLocal<>();
+    }
+
+
+    //constructor used to start a new game (an empty grid of the same size) with the pieces of an existing solver.
+    //pieces never change once they are created, so the existing solver's catalog and its read-only piece maps are shared instead of being copied
+    //(the maps are only copied if a piece is added to the new solver)
+    TetrisSolver(TetrisSolver piecesSolver){
+        this(piecesSolver.width, piecesSolver.height);
+        if(!piecesSolver.puzzlePieces.isEmpty()){
+            usePieceCatalog(piecesSolver.getPieceCatalog());
+        }
+    }
+
+
+    //method to save the grid, its dimensions and the puzzle pieces (with their relative frequencies) in the compact binary format
+    //described in SolverSnapshot. Search settings and caches are not saved (grids wider than SolverSnapshot.MAX_WIDTH columns cannot be saved)
+    byte[] snapshot() throws IllegalArgumentException{
+        if(width>SolverSnapshot.MAX_WIDTH || height>SolverSnapshot.MAX_HEIGHT){
+            throw new IllegalArgumentException("Grid is too large to snapshot!");
+        }
+        SolverSnapshot snapshot = new SolverSnapshot();
+        snapshot.writeHeader();
+        snapshot.writeVarint(width);
+        snapshot.writeVarint(height);
+        int stackHeight = grid.getStackHeight();   //number of rows up to the topmost non-empty row
+        snapshot.writeVarint(stackHeight);
+        for(int row=0; row<stackHeight; row++){
+            snapshot.writeGridRow(grid, row);
+        }
+        snapshot.writeVarint(puzzlePieces.size());
+        for(int pieceId=0; pieceId<puzzlePieces.size(); pieceId++){
+            Tetromino piece = puzzlePieces.get(pieceId);
+            snapshot.writeVarint(piece.getRelativeFrequency());
+            snapshot.writeMatrix(piece.getPiece());
+            snapshot.writeMatrix(piece.getCanonicalOrientation());
+            snapshot.writeVarint(piece.getPieceOrientations().size());
+            for(int[][] orientation: piece.getPieceOrientations()){
+                snapshot.writeMatrix(orientation);
             }
         }
-        checkEmptyRow = "";
-        checkFullRow = "";
-        //create strings to check if a row is empty or full based on the width of the grid
-        for(int i=0; i<width; i++){
-            checkEmptyRow += ' ';
-            checkFullRow += '*';
+        return snapshot.toByteArray();
+    }
+
+
+    //method to create a solver from a snapshot written by snapshot(). The pieces are restored from their saved orientations without
+    //validating or rotating them again (an IllegalArgumentException is thrown if the snapshot is not a valid snapshot).
+    //every dimension and count is checked against the grid's bounds and the bytes left in the snapshot before anything is allocated for it,
+    //so a corrupt snapshot cannot make restore() build more than its own size warrants
+    static TetrisSolver restore(byte[] snapshotBytes) throws IllegalArgumentException{
+        SolverSnapshot snapshot = new SolverSnapshot(snapshotBytes);
+        int width = snapshot.readVarint(1, SolverSnapshot.MAX_WIDTH);
+        int height = snapshot.readVarint(1, SolverSnapshot.MAX_HEIGHT);
+        TetrisSolver solver = new TetrisSolver(width, height);   //allocates in proportion to the width only (rows are stored as blocks are added)
+        int stackHeight = snapshot.readVarint(0, height);
+        snapshot.checkAvailable((long) stackHeight * ((width + 7)/8));
+        for(int row=0; row<stackHeight; row++){
+            snapshot.readGridRow(solver.grid, row);
+        }
+        int pieceCount = snapshot.readVarint(0, Integer.MAX_VALUE);
+        for(int pieceId=0; pieceId<pieceCount; pieceId++){
+            int relativeFrequency = snapshot.readVarint(1, Integer.MAX_VALUE);
+            int[][] piece = snapshot.readMatrix(height, width, true);   //the piece and its canonical orientation fit the grid in one of their rotations
+            int[][] canonicalOrientation = snapshot.readMatrix(height, width, true);
+            int orientationCount = snapshot.readVarint(1, 4);
+            List<int[][]> orientations = new ArrayList<>(orientationCount);
+            for(int i=0; i<orientationCount; i++){
+                orientations.add(snapshot.readMatrix(height, width, false));
+            }
+            Tetromino restoredPiece = new Tetromino(pieceId, relativeFrequency, piece, canonicalOrientation, orientations);
+            if(solver.isDuplicateTetromino(restoredPiece)){
+                throw new IllegalArgumentException("Snapshot is corrupt (duplicate piece)!");
+            }
+            solver.storeTetromino(restoredPiece);
         }
-        puzzlePieces = new HashMap<>();
+        snapshot.checkFullyRead();
+        return solver;
     }
 
 
     String showPuzzle(){
-        String puzzleStr = "";
-        //iterate through the grid bottom-up right-to-left
-        for(int row=0; row<height; row++){
-            String rowStr = "";
-            for(int col=width-1; col>=0; col--){
-                rowStr += grid[row][col];   //add each row's column values to the string
+        StringBuilder puzzle = new StringBuilder(getPuzzleLength());
+        appendPuzzle(puzzle);
+        return puzzle.toString();
+    }
+
+
+    //methods to write the grid as showPuzzle() shows it (rows top-down, left-to-right, separated by "\n" and without a trailing "\n")
+    //straight into an existing StringBuilder, Appendable (i.e., a Writer or a CharBuffer) or ByteBuffer, so that a caller that shows the grid
+    //repeatedly can reuse its buffer instead of building a new String each time.
+    //Like showPuzzle(), only the rows below the lowest empty row are written (nothing is written if the grid is empty)
+    void appendPuzzle(StringBuilder out){
+        int shownRows = shownRowCount();
+        for(int row=shownRows-1; row>=0; row--){
+            out.append(rowChars(row), 0, width);
+            if(row>0){
+                out.append('\n');
+            }
+        }
+    }
+
+    void appendPuzzle(Appendable out) throws IOException{
+        if(out instanceof StringBuilder){
+            appendPuzzle((StringBuilder) out);
+            return;
+        }
+        int shownRows = shownRowCount();
+        for(int row=shownRows-1; row>=0; row--){
+            char[] rowStr = rowChars(row);
+            if(out instanceof Writer){
+                ((Writer) out).write(rowStr, 0, width);
+            }
+            else if(out instanceof CharBuffer){
+                ((CharBuffer) out).put(rowStr, 0, width);
+            }
+            else{
+                for(int col=0; col<width; col++){
+                    out.append(rowStr[col]);
+                }
+            }
+            if(row>0){
+                out.append('\n');
+            }
+        }
+    }
+
+    //the grid is written as ASCII bytes ('*', ' ' and '\n'), and a BufferOverflowException is thrown if the buffer has less than
+    //getPuzzleLength() bytes remaining
+    void writePuzzle(ByteBuffer out){
+        int shownRows = shownRowCount();
+        for(int row=shownRows-1; row>=0; row--){
+            char[] rowStr = rowChars(row);
+            for(int col=0; col<width; col++){
+                out.put((byte) rowStr[col]);
             }
-            if(rowStr.equals(checkEmptyRow)){
-                break;   //denotes that a row that is empty has been reached (we dont need to add any more rows to the return string)
+            if(row>0){
+                out.put((byte) '\n');
             }
-            puzzleStr += rowStr + "\n";
         }
-        if(puzzleStr.equals("")){   //denotes grid is empty
-            return puzzleStr;   //returns an empty string
+    }
+
+
+    //method to get the number of chars (or ASCII bytes) showPuzzle() returns (used to size the buffers the grid is written into)
+    int getPuzzleLength(){
+        int shownRows = shownRowCount();
+        if(shownRows==0){   //denotes grid is empty
+            return 0;
+        }
+        return shownRows*(width + 1) - 1;
+    }
+
+
+    //method to find the number of rows showPuzzle() shows (the rows below the grid's lowest empty row)
+    private int shownRowCount(){
+        int row = 0;
+        while(row<grid.getStackHeight() && !grid.isRowEmpty(row)){
+            row++;
         }
-        //CITATION NOTE: I referenced the following URL for the method used below to reverse a string
-        //URL: https://stackoverflow.com/questions/7569335/reverse-a-string-in-java
-        //Accessed: November 17, 2022
-        puzzleStr = new StringBuilder(puzzleStr).reverse().toString();   //reverse the string so that the grid is printed from top to bottom
-        puzzleStr = puzzleStr.substring(1);   //remove the first "\n" char since we reversed the string
-        //System.out.println(gridPenalty(grid));
-        return puzzleStr;
+        return row;
+    }
+
+
+    //method to write a row's cells into rowChars (walking through the row's filled cells instead of checking every cell) and return it
+    private char[] rowChars(int row){
+        Arrays.fill(rowChars, 0, width, ' ');
+        for(int word=0; word<grid.getWordsPerRow(); word++){
+            long bits = grid.getRowWord(row, word);
+            while(bits!=0){
+                rowChars[word*64 + Long.numberOfTrailingZeros(bits)] = '*';
+                bits &= bits - 1;
+            }
+        }
+        return rowChars;
     }
 
 
@@ -79,27 +245,72 @@ public class TetrisSolver{
         //fill grid's next usable top row based on nextRow supplied
         for(int col=0; col<width; col++){
             if(nextRow.charAt(col)!=' '){
-                grid[nextUsableRowInGrid][col] = '*';
+                grid.fill(nextUsableRowInGrid, col);
             }
         }
+        if(searchContext!=null){
+            searchContext.clearReplies();   //the replies were found in the grid without the new row
+        }
     }
 
 
-    //method to find grid's topmost available row (topmost row that is still empty)
-    private int topRowInGrid(char[][] currGrid){
-        //iterate through grid top-down left-to-right
-        for(int row=height-1; row>=0; row--){
-            for(int col=0; col<width; col++){
-                if(currGrid[row][col]!=' '){   // a non-empty cell is found
-                    return row + 1;   //return the row above this row (this row being the topmost row that is already in use)
-                }
+    //method to find grid's topmost available row (the row above the topmost row that is already in use, 0 (the grid's "floor") if the grid is empty)
+    private int topRowInGrid(BitGrid currGrid){
+        return currGrid.getStackHeight();   //the grid keeps track of its stack height as blocks are added and rows are removed
+    }
+
+
+    int addPuzzlePiece(String piece, int relativeFrequency) throws IllegalArgumentException{
+        Tetromino newTetromino = createTetromino(piece, relativeFrequency, puzzlePieces.size());
+        if(isDuplicateTetromino(newTetromino)){   //check that the new piece is not a duplicate of an existing piece that was added
+            throw new IllegalArgumentException("Piece is a duplicate (identical piece already stored)!");
+        }
+        else{
+            storeTetromino(newTetromino);
+            piecesChanged();
+        }
+        int pieceId = newTetromino.getPieceId();
+        return pieceId;
+    }
+
+
+    //method to add a set of pieces in one pass (the pieces get consecutive pieceIds in the order they are supplied).
+    //the caches that depend on the pieces are only reset once, and if any piece is invalid or a duplicate (of a stored piece or of another piece
+    //in the set) none of the pieces are added. Returns the pieceIds of the added pieces
+    int[] addPuzzlePieces(String[] pieces, int[] relativeFrequencies) throws IllegalArgumentException{
+        if(pieces==null || relativeFrequencies==null){
+            throw new IllegalArgumentException("Pieces or relative frequencies are null!");
+        }
+        if(pieces.length!=relativeFrequencies.length){
+            throw new IllegalArgumentException("Number of pieces and relative frequencies differ!");
+        }
+        Tetromino[] newTetrominoes = new Tetromino[pieces.length];
+        Set<String> newCanonicalKeys = new HashSet<>();
+        for(int i=0; i<pieces.length; i++){
+            try{
+                newTetrominoes[i] = createTetromino(pieces[i], relativeFrequencies[i], puzzlePieces.size() + i);
+            }
+            catch(IllegalArgumentException e){
+                throw new IllegalArgumentException("Piece " + i + ": " + e.getMessage(), e);   //report which piece of the set is invalid
             }
+            if(isDuplicateTetromino(newTetrominoes[i]) || !newCanonicalKeys.add(newTetrominoes[i].getCanonicalKey())){
+                throw new IllegalArgumentException("Piece " + i + ": Piece is a duplicate (identical piece already stored)!");
+            }
+        }
+        int[] pieceIds = new int[pieces.length];
+        for(int i=0; i<pieces.length; i++){
+            storeTetromino(newTetrominoes[i]);
+            pieceIds[i] = newTetrominoes[i].getPieceId();
+        }
+        if(pieces.length>0){
+            piecesChanged();
         }
-        return 0;   //grid is empty so return 0 which denotes the bottommost row of the grid (its "floor")
+        return pieceIds;
     }
 
 
-    int addPuzzlePiece(String piece, int relativeFrequency) throws IllegalArgumentException{
+    //method used by addPuzzlePiece() and addPuzzlePieces() to validate a piece and create its Tetromino object
+    private Tetromino createTetromino(String piece, int relativeFrequency, int pieceId) throws IllegalArgumentException{
         if(piece==null){
             throw new IllegalArgumentException("Piece is null!");
         }
@@ -115,38 +326,46 @@ public class TetrisSolver{
         try{
             //pass information about the piece being added and the grid to the Tetromino class which
             //will check whether the piece is valid. If it is valid, a new Tetromino object of this piece will be created
-            newTetromino = new Tetromino(pieceRows, puzzlePieces.size(), relativeFrequency, width, height);
+            newTetromino = new Tetromino(pieceRows, pieceId, relativeFrequency, width, height);
         }
         catch(IllegalArgumentException e){
             throw e;   //Tetromino class threw an exception because the piece is invalid
         }
-        if(isDuplicateTetromino(newTetromino)){   //check that the new piece is not a duplicate of an existing piece that was added
-            throw new IllegalArgumentException("Piece is a duplicate (identical piece already stored)!");
+        return newTetromino;
+    }
+
+
+    //method to add a validated piece to the map that aggregates all the puzzle pieces added and to the index of their canonical keys
+    private void storeTetromino(Tetromino newTetromino){
+        if(piecesReadOnly){   //copy on write: the maps may be shared with other solvers
+            puzzlePieces = new HashMap<>(puzzlePieces);
+            canonicalPieces = new HashMap<>(canonicalPieces);
+            piecesReadOnly = false;
         }
-        else{
-            puzzlePieces.put(puzzlePieces.size(), newTetromino);   //add the new piece to the map that aggregates all the puzzle pieces added
+        puzzlePieces.put(newTetromino.getPieceId(), newTetromino);
+        canonicalPieces.put(newTetromino.getCanonicalKey(), newTetromino.getPieceId());
+    }
+
+
+    //method to reset everything that was derived from the previous set of pieces
+    private void piecesChanged(){
+        if(transpositionTable!=null){
+            transpositionTable.clear();   //the stored lookahead values did not consider the new pieces
         }
-        int pieceId = newTetromino.getPieceId();
-        return pieceId;
+        pieceCatalog = null;   //the catalog, the searches and the search context are recreated with the new pieces
+        searchContext = null;
+        lookaheadSearch = null;
+        workerSearches = new ThreadLocal<>();
+        beamSearch = null;
     }
 
 
 
     //method used to check whether a new piece is a duplicate of an existing piece
-    //this is used when validating a piece in addPuzzlePiece()
-    private boolean isDuplicateTetromino(Tetromino newPiece){
-        for(Map.Entry<Integer, Tetromino> existingTetromino: puzzlePieces.entrySet()){   //iterate through each existing piece
-            List<int[][]> existingTetrominoOrientations = existingTetromino.getValue().getPieceOrientations();
-            for(int[][] existingOrientation: existingTetrominoOrientations){    //iterate through each of the existing piece's orientations (different rotational positions)
-                for(int[][] newPieceOrientation: newPiece.getPieceOrientations()){   //iterate through each of the new piece's orientations
-                    if(Arrays.deepEquals(newPieceOrientation, existingOrientation)){   //check whether the two orientations match
-                        return true;   //the piece is a duplicate
-                    }
-                }
-
-            }
-        }
-        return false;   //the piece is not a duplicate
+    //this is used when validating a piece in addPuzzlePiece(). Two pieces share an orientation exactly when they have the same canonical key
+    //(see Tetromino), so the check is a single lookup in the index of the stored pieces' keys
+    boolean isDuplicateTetromino(Tetromino newPiece){
+        return canonicalPieces.containsKey(newPiece.getCanonicalKey());
     }
 
 
@@ -158,236 +377,440 @@ public class TetrisSolver{
         if(lookahead<0){
             throw new IllegalArgumentException("Lookahead is negative (invalid)!");
         }
-        List<PiecePlacement> initialPlacements = new ArrayList<>();
-        Tetromino firstPiece = puzzlePieces.get(pieceId);   //get the object of the first piece being placed
-        for(int[][] pieceOrientation: firstPiece.getPieceOrientations()){   //iterate through the piece's orientations
-            initialPlacements.addAll(fitPiece(pieceOrientation, grid, pieceId));   //add all the possible placements of that orientation in the grid into a list
-        }
-        if(initialPlacements.isEmpty()){   //if this list is empty, then the first piece cannot be placed due to the grid's current configuration meaning its game over
-            throw new IllegalArgumentException("GAME OVER: Cannot fit piece placed into current grid configuration!");
+        startMetrics(lookahead);
+        LookaheadSearch search = getLookaheadSearch(lookahead);
+        search.setGrid(grid);
+        //find all the possible placements of the piece's orientations in the grid (stored in the search's placement buffer of ply 0)
+        int initialPlacements = search.generatePlacements(pieceId, 0);
+        if(initialPlacements==0){   //if there are no placements, then the first piece cannot be placed due to the grid's current configuration meaning its game over
+            throw new GameOverException();
         }
         //when the lookahead is zero, simply calculate the value of each of the initial placements and get the best one. Then, set the grid to reflect
         //that best placement and return that placement's value
         if(lookahead==0){
-            int bestValue = initialPlacements.get(0).getPlacementValue() - gridPenalty(initialPlacements.get(0).getGridAfterPlacement());
-            char[][] bestGrid = initialPlacements.get(0).getGridAfterPlacement();
-            for(int i=0; i<initialPlacements.size(); i++){
-                int placementValue = initialPlacements.get(i).getPlacementValue() - gridPenalty(initialPlacements.get(i).getGridAfterPlacement());
-                if(placementValue>bestValue){
+            int bestPlacement = -1;
+            int bestValue = 0;
+            for(int i=0; i<initialPlacements; i++){
+                long placement = search.getPlacement(0, i);
+                int rowsCleared = search.applyPlacement(placement, 0);   //apply the placement to the search's working grid
+                int placementValue = placementValue(rowsCleared) - search.workingGridPenalty();
+                search.undoPlacement(placement, 0, rowsCleared);   //roll the working grid back
+                if(bestPlacement==-1 || placementValue>bestValue){
                     bestValue = placementValue;
-                    bestGrid = initialPlacements.get(i).getGridAfterPlacement();
+                    bestPlacement = i;
                 }
             }
-            grid = bestGrid;
+            commitPlacement(search.getPlacement(0, bestPlacement));
+            finishMetrics();
             return bestValue;
         }
         else{
-            List<List<PiecePlacement>> lookaheadCombinations = new ArrayList<>();   //list to store all lookahead placement combinations
-            //add initial piece's placements to that list (these form the base of the potential future placement combinations)
-            for(int i=0; i<initialPlacements.size(); i++){
-                List<PiecePlacement> firstPlacement = new ArrayList<>();
-                firstPlacement.add(initialPlacements.get(i));
-                lookaheadCombinations.add(firstPlacement);
-            }
-            int counter = 1;
-            //find the lookahead placement combinations <lookahead> times (go forward <lookahead> times)
-            while(counter<=lookahead){
-                //get the next potential placement combinations based on the current combinations
-                List<List<PiecePlacement>> nextPlacementCombinations = feedForward(lookaheadCombinations, counter);
-                if(nextPlacementCombinations.isEmpty()){   //denotes that no more pieces can fit in any existing combination because of the grid configurations of each combination
-                    break;                                 //this is rare and only happens in extreme circumstances where the grid is rather small, pieces are big, and lookahead is a large value
+            long sumOfPieceFrequencies = sumOfPieceFrequencies();
+            //search the lookahead placements of each initial placement depth-first (in parallel if more than one search thread is used)
+            SearchContext context = getSearchContext();
+            context.ensureCapacity(initialPlacements);
+            long[] lookaheadDepths = context.getLookaheadDepths();
+            long[] lookaheadValues = context.getLookaheadValues();
+            if(lookaheadPruning){
+                searchLookaheadWithPruning(pieceId, search, initialPlacements, lookahead, lookaheadDepths, lookaheadValues);
+            }
+            else if(searchParallelism>1){
+                searchLookaheadInParallel(search, initialPlacements, lookahead, lookaheadDepths, lookaheadValues);
+            }
+            else{
+                for(int i=0; i<initialPlacements; i++){
+                    long placement = search.getPlacement(0, i);
+                    int rowsCleared = search.applyPlacement(placement, 0);
+                    lookaheadValues[i] = placementValue(rowsCleared) * sumOfPieceFrequencies + search.search(lookahead, 1);
+                    lookaheadDepths[i] = search.getResultDepth();
+                    search.undoPlacement(placement, 0, rowsCleared);
                 }
-                lookaheadCombinations = nextPlacementCombinations;   //update combinations
-                counter++;   //increment "depth" counter
             }
-            //find the best placement combination between all the lookahead combinations identified in the last step
-            List<PiecePlacement> bestLookaheadCombination = findBestLookahead(lookaheadCombinations);
-            if(bestLookaheadCombination==null){   //no best combination exists (this happens when no piece can be fit after the first initial piece)
-                return placePiece(pieceId, 0);  //so, instead just redo this method but with a lookahead of 0
+            //keep the first initial placement that leads to the best combination
+            //(combinations that reach a deeper lookahead always beat shallower ones, since a combination is only cut short when no piece fits its grid)
+            int bestPlacement = bestLookahead(lookaheadDepths, lookaheadValues, initialPlacements);
+            int placementValue = commitPlacement(search.getPlacement(0, bestPlacement));  //set the grid to reflect the best combination's initial piece placement
+            if(lookaheadPruning){
+                context.keepReplies(bestPlacement);   //the next call starts from the grid the replies were found in
             }
-            grid = bestLookaheadCombination.get(0).getGridAfterPlacement();  //set the grid to reflect the best combination's initial piece placement
-            return bestLookaheadCombination.get(0).getPlacementValue() - gridPenalty(grid);   //return that initial piece placement's value
+            finishMetrics();
+            return placementValue - gridPenalty(grid);   //return that initial piece placement's value
         }
     }
 
 
-    //method used by placePiece to return all possible placements for that piece in a grid
-    private List<PiecePlacement> fitPiece(int[][] piece, char[][] currGrid, int pieceId){
-        int pieceHeight = piece.length;
-        int pieceWidth = piece[0].length;
-        List<PiecePlacement> possiblePlacements = new ArrayList<>();   //list to store all possible placement of piece
-        //check all valid possible placements in current grid config
-        for(int row=0; row<height; row++){
-            for(int col=0; col<width; col++){
-                if(pieceHeight>height-row || pieceWidth>width-col){
-                    continue;   //piece cannot fit in the grid using this starting cell
-                }
-                boolean overlapsExistingBlocks = false;
-                for(int y=0; y<pieceHeight; y++){
-                    if(overlapsExistingBlocks){   //break loop if overlap detected (reduces iterations)
-                        break;
-                    }
-                    //check if this place would cause the piece to overlap with existing blocks
-                    for(int x=0; x<pieceWidth; x++){
-                        if(piece[y][x]==1){
-                            if(currGrid[row+y][col+x]=='*'){
-                                overlapsExistingBlocks = true;   //the piece would overlap with existing blocks
-                                break;
-                            }
-                        }
-                    }
-                }
-                if(overlapsExistingBlocks){   //overlap would occur with this starting coordinate
-                    continue;   //try next column in row as starting coordinate
-                }
-                //create deep copy of grid to perform placement validation operations on
-                char[][] tempGrid = deepCopyGrid(currGrid);
-                if(isPlacementValid(piece, row, col, tempGrid)){   //this placement would be valid
-                    char[][] gridAfterPlacement = deepCopyGrid(currGrid);   //create deep copy of grid to place piece in (need copy next potential placements need to check against this placement)
-                    PiecePlacement placement = findPlacementValue(piece, row, col, gridAfterPlacement, pieceId);  //create the PiecePlacement object to store this placement
-                    possiblePlacements.add(placement);  //add that object to the list of possible placements
-                }
-            }
+    //method to place a piece using a beam search instead of the exact lookahead search: after each of the <lookahead> placements that follow the piece,
+    //only the best <beamWidth> partial combinations (ranked by their frequency-weighted value minus the penalty of their grid) are kept and extended.
+    //This bounds the search's time and memory by the beam width instead of growing exponentially with the lookahead (at the cost of possibly
+    //missing the best combination). Returns the value of the piece's placement the same way as placePiece(pieceId, lookahead)
+    int placePiece(int pieceId, int lookahead, int beamWidth) throws IllegalArgumentException{
+        if(!puzzlePieces.containsKey(pieceId)){   //check whether the pieceId supplied exists
+            throw new IllegalArgumentException("PieceId does not exist!");
         }
-        return possiblePlacements;
-    }
-
-
-
-    //method to check next potential placement combinations based on the previous placement combinations identified while "looking ahead"
-    private List<List<PiecePlacement>> feedForward(List<List<PiecePlacement>> lookaheadCombinations, int counter){
-        List<List<PiecePlacement>> nextPlacementCombinations = new ArrayList<>();   //list to store the next round of placement combinations
-        //iterate over the list of previous placement combinations
-        for(int i=0; i<lookaheadCombinations.size(); i++){
-            //iterate over each puzzle piece stored (i.e., each puzzle piece added using addPuzzlePiece)
-            for(int j=0; j<puzzlePieces.size(); j++){
-                Tetromino nextPiece = puzzlePieces.get(j);
-                //iterate over each of the piece's rotational orientations
-                for(int k=0; k<nextPiece.getPieceOrientations().size(); k++){
-                    char[][] lastGrid = deepCopyGrid(lookaheadCombinations.get(i).get(counter-1).getGridAfterPlacement());   //deep copy the last placement in the combination's grid (i.e., the grid after the last piece placed in this combination)
-                    List<PiecePlacement> existingCombination = lookaheadCombinations.get(i);   //fetch this combination's ordered list of piece placements
-                    List<PiecePlacement> nextPossiblePlacements = fitPiece(nextPiece.getPieceOrientations().get(k), lastGrid, nextPiece.getPieceId());   //get all the possible placements of this piece's orientation
-                    if(nextPossiblePlacements.isEmpty()){   //this piece orientation cannot fit in the previous placement's grid (lastGrid)
-                        continue;   //go to the next piece orientation of this piece
-                    }
-                    //iterate over the list of next possible placements
-                    for(int f1=0; f1<nextPossiblePlacements.size(); f1++){
-                        //create a new list for each next possible placement
-                        List<PiecePlacement> newCombination = new ArrayList<>();
-                        //add all the existing placements in the existing combination to that list
-                        newCombination.addAll(existingCombination);
-                        //add the new placement at the end of that list
-                        newCombination.add(nextPossiblePlacements.get(f1));
-                        //add that list to the list of ALL next possible combinations
-                        nextPlacementCombinations.add(newCombination);
-                    }
-                }
-            }
+        if(lookahead<0){
+            throw new IllegalArgumentException("Lookahead is negative (invalid)!");
         }
-        return nextPlacementCombinations;
+        if(beamWidth<1){
+            throw new IllegalArgumentException("Beam width is less than 1 (invalid)!");
+        }
+        if(lookahead==0){   //without a lookahead there are no combinations to narrow down
+            return placePiece(pieceId, 0);
+        }
+        startMetrics(lookahead);
+        if(beamSearch==null){
+            beamSearch = new BeamSearch(getPieceCatalog(), grid);
+        }
+        beamSearch.setMetrics(searchMetrics);
+        long bestPlacement = beamSearch.search(grid, pieceId, lookahead, beamWidth);
+        if(bestPlacement==-1){
+            throw new GameOverException();
+        }
+        int placementValue = commitPlacement(bestPlacement);
+        finishMetrics();
+        return placementValue - gridPenalty(grid);
     }
 
 
+    //method to place a piece when the pieces that follow it are known (i.e., the preview queue of the next pieces a client shows): the first
+    //<lookahead> placements after the piece are searched along <preview> (pieceIds of the next pieces in order) instead of over every piece, and only
+    //the placements beyond the end of the preview are searched over every piece weighted by its relative frequency (as placePiece(pieceId, lookahead)
+    //searches all of them). A placement of a known piece is weighted as if the piece had the sum of all frequencies, since it is certain.
+    //With a preview of p pieces, each of the first p levels of the search branches on one piece instead of all of them.
+    //The search is sequential (setSearchParallelism() and setLookaheadPruning() do not apply).
+    //Returns the value of the piece's placement the same way as placePiece(pieceId, lookahead)
+    int placePieceWithPreview(int pieceId, int[] preview, int lookahead) throws IllegalArgumentException{
+        if(!puzzlePieces.containsKey(pieceId)){   //check whether the pieceId supplied exists
+            throw new IllegalArgumentException("PieceId does not exist!");
+        }
+        if(preview==null){
+            throw new IllegalArgumentException("Preview is null!");
+        }
+        for(int previewPieceId: preview){
+            if(!puzzlePieces.containsKey(previewPieceId)){
+                throw new IllegalArgumentException("Preview pieceId does not exist!");
+            }
+        }
+        if(lookahead<0){
+            throw new IllegalArgumentException("Lookahead is negative (invalid)!");
+        }
+        if(lookahead==0){   //without a lookahead the preview is not used
+            return placePiece(pieceId, 0);
+        }
+        startMetrics(lookahead);
+        LookaheadSearch search = getLookaheadSearch(lookahead);
+        search.setGrid(grid);
+        int initialPlacements = search.generatePlacements(pieceId, 0);
+        if(initialPlacements==0){
+            throw new GameOverException();
+        }
+        long sumOfPieceFrequencies = sumOfPieceFrequencies();
+        SearchContext context = getSearchContext();
+        context.ensureCapacity(initialPlacements);
+        long[] lookaheadDepths = context.getLookaheadDepths();
+        long[] lookaheadValues = context.getLookaheadValues();
+        int[] previewPieces = preview.clone();   //the caller's array is not read during the search
+        for(int i=0; i<initialPlacements; i++){
+            long placement = search.getPlacement(0, i);
+            int rowsCleared = search.applyPlacement(placement, 0);
+            lookaheadValues[i] = placementValue(rowsCleared) * sumOfPieceFrequencies + search.searchPreview(previewPieces, 0, lookahead, 1);
+            lookaheadDepths[i] = search.getResultDepth();
+            search.undoPlacement(placement, 0, rowsCleared);
+        }
+        int bestPlacement = bestLookahead(lookaheadDepths, lookaheadValues, initialPlacements);
+        int placementValue = commitPlacement(search.getPlacement(0, bestPlacement));
+        finishMetrics();
+        return placementValue - gridPenalty(grid);
+    }
 
-    //method used by placePiece() that calculates the overall value of all placement combinations found when looking ahead
-    //and identifies the best combination based on those calculated values
-    private List<PiecePlacement> findBestLookahead(List<List<PiecePlacement>> lookaheadCombinations){
-        Map<List<PiecePlacement>, Double> lookaheadValues = new HashMap<>();   //map to store each combination and its total value
-        //get the sum of the relative piece frequencies
-        double sumOfPieceFrequencies = 0;
-        for(int i=0; i<puzzlePieces.size(); i++){
-            sumOfPieceFrequencies += puzzlePieces.get(i).getRelativeFrequency();
+
+    //method to place a piece within a time budget (in nanoseconds) using iterative deepening: the piece's placements are searched with a lookahead of 0,
+    //then 1, 2, ... up to <maxLookahead>. Each deeper search is a branch-and-bound search (see LookaheadSearch's searchBounded()) that visits the initial
+    //placements in the order of the previous search's results (best first), so the previous best placement usually sets the incumbent right away and
+    //most of the other placements' combinations are pruned against it. When the budget runs out, the unfinished search is discarded and the best
+    //placement of the deepest completed search is placed (the search with a lookahead of 0 always completes, even when the budget is 0).
+    //The deepening also stops early once a search finds that no combination can reach its full lookahead, since deeper searches would give the same result.
+    //A completed search gives the same placement as placePiece(pieceId, lookahead). The lookahead of the completed search is available from
+    //getCompletedLookahead(). The search is sequential (setSearchParallelism() does not apply).
+    //Returns the value of the piece's placement the same way as placePiece(pieceId, lookahead)
+    int placePieceWithinBudget(int pieceId, int maxLookahead, long timeBudgetNanos) throws IllegalArgumentException{
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        if(!puzzlePieces.containsKey(pieceId)){   //check whether the pieceId supplied exists
+            throw new IllegalArgumentException("PieceId does not exist!");
+        }
+        if(maxLookahead<0){
+            throw new IllegalArgumentException("Lookahead is negative (invalid)!");
+        }
+        if(timeBudgetNanos<0){
+            throw new IllegalArgumentException("Time budget is negative (invalid)!");
+        }
+        startMetrics(maxLookahead);
+        LookaheadSearch search = getLookaheadSearch(maxLookahead);
+        search.setGrid(grid);
+        int initialPlacements = search.generatePlacements(pieceId, 0);
+        if(initialPlacements==0){
+            throw new GameOverException();
+        }
+        long sumOfPieceFrequencies = sumOfPieceFrequencies();
+        SearchContext context = getSearchContext();
+        context.ensureCapacity(initialPlacements);
+        int[] placementValues = context.getPlacementValues();
+        long[] lookaheadDepths = context.getLookaheadDepths();
+        long[] lookaheadValues = context.getLookaheadValues();
+        //lookahead 0: the value of each initial placement
+        for(int i=0; i<initialPlacements; i++){
+            long placement = search.getPlacement(0, i);
+            int rowsCleared = search.applyPlacement(placement, 0);
+            placementValues[i] = placementValue(rowsCleared);
+            lookaheadDepths[i] = 0;
+            lookaheadValues[i] = placementValues[i] - search.workingGridPenalty();
+            search.undoPlacement(placement, 0, rowsCleared);
         }
-        for(List<PiecePlacement> placementCombination: lookaheadCombinations){
-            double totalValue = 0;
-            for(int i=0; i<placementCombination.size(); i++){
-                if(i==0){
-                    totalValue += placementCombination.get(i).getPlacementValue();
+        int bestPlacement = bestLookahead(lookaheadDepths, lookaheadValues, initialPlacements);
+        int[] searchOrder = orderByLookahead(lookaheadDepths, lookaheadValues, initialPlacements, context.getSearchOrder());
+        int completedLookahead = 0;
+        long[] iterationDepths = context.getIterationDepths();
+        long[] iterationValues = context.getIterationValues();
+        search.setDeadline(deadline);
+        search.resetNodeCounts();
+        for(int lookahead=1; lookahead<=maxLookahead; lookahead++){
+            if(System.nanoTime() - deadline >= 0){
+                break;
+            }
+            long deepestCombination = 0;
+            int iterationBest = -1;   //best initial placement searched so far in this lookahead
+            for(int k=0; k<initialPlacements; k++){
+                int i = searchOrder[k];
+                //only combinations that reach the full lookahead become the incumbent. Initial placements before the best one win ties with it,
+                //so while they are searched the incumbent is lowered by one and only combinations worse than the best one are pruned
+                search.startBoundedSearch();
+                if(iterationBest!=-1 && iterationDepths[iterationBest]==lookahead){
+                    search.seedIncumbent(iterationValues[iterationBest] - (i<iterationBest ? 1 : 0));
+                }
+                long placement = search.getPlacement(0, i);
+                int rowsCleared = search.applyPlacement(placement, 0);
+                long placementValue = placementValues[i] * sumOfPieceFrequencies;
+                iterationValues[i] = placementValue + search.searchBounded(lookahead, 1, placementValue);
+                iterationDepths[i] = search.getResultDepth();   //-1 if all of the placement's combinations were pruned
+                search.undoPlacement(placement, 0, rowsCleared);
+                if(search.isAborted()){
+                    break;
                 }
-                else{
-                    double pieceFrequency = puzzlePieces.get(placementCombination.get(i).getPieceId()).getRelativeFrequency();
-                    totalValue += (pieceFrequency * placementCombination.get(i).getPlacementValue()) / sumOfPieceFrequencies;
+                if(iterationBest==-1 || isBetterLookahead(iterationDepths[i], iterationValues[i], iterationDepths[iterationBest], iterationValues[iterationBest])
+                        || (i<iterationBest && iterationDepths[i]==iterationDepths[iterationBest] && iterationValues[i]==iterationValues[iterationBest])){
+                    iterationBest = i;
                 }
+                deepestCombination = Math.max(deepestCombination, iterationDepths[i]);
             }
-            totalValue = totalValue - gridPenalty(placementCombination.get(placementCombination.size()-1).getGridAfterPlacement());
-            lookaheadValues.put(placementCombination, totalValue);
-        }
-        //CITATION NOTE: Used the below shorthand way to find the first entry in a map from the following URL:
-        //URL: https://stackoverflow.com/questions/26230225/hashmap-getting-first-key-value
-        //Accessed: November 19, 2022
-        Map.Entry<List<PiecePlacement>, Double> firstCombination = lookaheadValues.entrySet().iterator().next();
-        //set an initial best value and best placement as the first entry in the <placement-value> map
-        double bestValue = firstCombination.getValue();
-        List<PiecePlacement> bestCombination = firstCombination.getKey();
-        //iterate through that map to find the best value
-        for(Map.Entry<List<PiecePlacement>, Double> entry: lookaheadValues.entrySet()){
-            if(entry.getValue()>bestValue){
-                bestValue = entry.getValue();
-                bestCombination = entry.getKey();
+            expandedNodes = search.getExpandedNodes();
+            prunedNodes = search.getPrunedNodes();
+            if(search.isAborted()){   //the budget ran out before this lookahead was completely searched
+                break;
+            }
+            System.arraycopy(iterationDepths, 0, lookaheadDepths, 0, initialPlacements);
+            System.arraycopy(iterationValues, 0, lookaheadValues, 0, initialPlacements);
+            bestPlacement = bestLookahead(lookaheadDepths, lookaheadValues, initialPlacements);
+            orderByLookahead(lookaheadDepths, lookaheadValues, initialPlacements, searchOrder);
+            completedLookahead = lookahead;
+            if(deepestCombination<lookahead){   //no combination reached this lookahead, so searching deeper would not change the result
+                break;
             }
         }
-        return bestCombination;
+        search.clearDeadline();
+        this.completedLookahead = completedLookahead;
+        int placementValue = commitPlacement(search.getPlacement(0, bestPlacement));
+        finishMetrics();
+        return placementValue - gridPenalty(grid);
+    }
+
+
+    //method to enumerate the legal placements of a piece on the current grid lazily (see PlacementSpliterator) without placing it, i.e., to show
+    //the possible moves. Each placement is a packed long, read with getPlacementPiece(), getPlacementRotation(), getPlacementRow() and getPlacementColumn().
+    //the enumeration works on a copy of the current grid (one copy, however many placements are enumerated), so the solver can keep placing pieces meanwhile
+    PlacementSpliterator placementSpliterator(int pieceId) throws IllegalArgumentException{
+        if(!puzzlePieces.containsKey(pieceId)){
+            throw new IllegalArgumentException("PieceId does not exist!");
+        }
+        PieceCatalog catalog = getPieceCatalog();
+        int firstOrientation = catalog.getFirstOrientation(pieceId);
+        return new PlacementSpliterator(new BitGrid(grid), catalog, firstOrientation, firstOrientation + catalog.getOrientationCount(pieceId));
+    }
+
+
+    //method to enumerate the legal placements of every piece on the current grid lazily (piece by piece in pieceId order)
+    PlacementSpliterator placementSpliterator(){
+        PieceCatalog catalog = getPieceCatalog();
+        return new PlacementSpliterator(new BitGrid(grid), catalog, 0, catalog.getTotalOrientations());
+    }
+
+
+    //the legal placements of a piece on the current grid as a lazy stream (use parallel() to enumerate them on several threads)
+    LongStream placements(int pieceId) throws IllegalArgumentException{
+        return StreamSupport.longStream(placementSpliterator(pieceId), false);
+    }
+
+
+    //the legal placements of every piece on the current grid as a lazy stream
+    LongStream placements(){
+        return StreamSupport.longStream(placementSpliterator(), false);
+    }
+
+
+    //method to visit the legal placements of a piece on the current grid until the visitor returns false. Returns whether every placement was visited
+    boolean visitPlacements(int pieceId, LongPredicate visitor) throws IllegalArgumentException{
+        return placementSpliterator(pieceId).visitRemaining(visitor);
+    }
+
+
+    //pieceId of the piece of a placement enumerated by placementSpliterator()
+    int getPlacementPiece(long placement){
+        return getPieceCatalog().getOrientationPiece(LookaheadSearch.placementOrientation(placement));
+    }
+
+
+    //index of a placement's orientation in its piece's orientations (see Tetromino's getPieceOrientations())
+    int getPlacementRotation(long placement){
+        PieceCatalog catalog = getPieceCatalog();
+        int orientation = LookaheadSearch.placementOrientation(placement);
+        return orientation - catalog.getFirstOrientation(catalog.getOrientationPiece(orientation));
+    }
+
+
+    //starting row of a placement (the grid row of the first row of the piece's orientation matrix, where row 0 is the grid's bottom row)
+    static int getPlacementRow(long placement){
+        return LookaheadSearch.placementRow(placement);
     }
 
 
+    //starting column of a placement (the grid column of the first column of the piece's orientation matrix)
+    static int getPlacementColumn(long placement){
+        return LookaheadSearch.placementColumn(placement);
+    }
+
+
+    //lookahead of the last search completed by placePieceWithinBudget()
+    int getCompletedLookahead(){
+        return completedLookahead;
+    }
 
-    //method to fully copy a grid object (matrix)
-    //this is used when performing operations on a grid are not permanent like
-    //calculating lookahead placements
-    private char[][] deepCopyGrid(char[][] gridToCopy){
-        char[][] copyGrid = new char[gridToCopy.length][gridToCopy[0].length];
-        for(int row=0; row<gridToCopy.length; row++){
-            for(int col=0; col<gridToCopy[0].length; col++){
-                copyGrid[row][col] = gridToCopy[row][col];
+
+    //method used by placePiece() and placePieceWithinBudget() to find the first initial placement with the best lookahead result
+    private static int bestLookahead(long[] lookaheadDepths, long[] lookaheadValues, int placementCount){
+        int bestPlacement = 0;
+        for(int i=1; i<placementCount; i++){
+            if(isBetterLookahead(lookaheadDepths[i], lookaheadValues[i], lookaheadDepths[bestPlacement], lookaheadValues[bestPlacement])){
+                bestPlacement = i;
             }
         }
-        return copyGrid;
+        return bestPlacement;
     }
 
 
-    //method to check that a piece placement is valid used during fitPiece.
-    //Specifically, it checks that the piece isn't "floating" (i.e., it is connected the top of the existing grid configuration or the grid's floor (bottom row)
-    private boolean isPlacementValid(int[][] piece, int startingY, int startingX, char[][] currGrid){
-        boolean floatingPiece = true;
-        for(int y=0; y<piece.length; y++){
-            for(int x=0; x<piece[0].length; x++){
-                if(startingY + y == nextRowInExistingColumn(currGrid, startingX + x)){   //check whether this block in the piece is located one row above the
-                    floatingPiece = false;                                                   //the topmost filled row in the column it is being placed in
-                }
-                if(piece[y][x] == 1){
-                    currGrid[startingY + y][startingX + x] = '*';   //place the piece block in the grid to reflect the placement
-                }
+    //method used by placePieceWithinBudget() to order the initial placements by their lookahead results (best first, ties kept in placement order)
+    //(the order is written into <order>, which is returned)
+    private static int[] orderByLookahead(long[] lookaheadDepths, long[] lookaheadValues, int placementCount, int[] order){
+        for(int i=0; i<placementCount; i++){   //insertion sort (stable, so ties stay in placement order)
+            int k = i - 1;
+            while(k>=0 && isBetterLookahead(lookaheadDepths[i], lookaheadValues[i], lookaheadDepths[order[k]], lookaheadValues[order[k]])){
+                order[k+1] = order[k];
+                k--;
             }
+            order[k+1] = i;
+        }
+        return order;
+    }
+
+
+    //method used by placePiece() to get the search used to find placements (it is created when it is first needed or when the pieces have changed,
+    //and reused by the following calls so that its buffers do not have to be allocated again)
+    private LookaheadSearch getLookaheadSearch(int lookahead){
+        if(lookahead>0 && transpositionTable==null && transpositionTableSize>0){
+            transpositionTable = new TranspositionTable(width, height, transpositionTableSize);
+            lookaheadSearch = null;   //the searches have to be recreated to use the table
+            workerSearches = new ThreadLocal<>();
         }
-        if(!floatingPiece){   //at least one of the piece's blocks is connected to the grid's topmost blocks
-            return true;      //the piece does not "float" in this placement --> placement is valid
+        if(lookaheadSearch==null){
+            lookaheadSearch = createLookaheadSearch();
         }
-        return false;
+        lookaheadSearch.setMetrics(searchMetrics);
+        return lookaheadSearch;
     }
 
 
-    //method used during isPlacementValid that returns the next available top row in a column
-    private int nextRowInExistingColumn(char[][] currGrid, int col){
-        //iterate through rows of a particular column top-bottom
-        for(int row=height-1; row>=0; row--){
-            if(currGrid[row][col]!=' '){   //topmost filled row in column found
-                return row + 1;    //return the row above that topmost filled row
-            }
+    //method to create a search of the current pieces starting from the current grid
+    LookaheadSearch createLookaheadSearch(){
+        LookaheadSearch search = new LookaheadSearch(getPieceCatalog(), transpositionTable, grid);
+        search.setMetrics(searchMetrics);
+        return search;
+    }
+
+
+    //method used by each LookaheadTask of a parallel search to get the calling thread's search, starting from the current grid.
+    //a thread runs one task at a time, and a task is done with the search before it runs another (it does not fork or join while it uses
+    //the search), so each thread creates its search once and every task it runs reuses the search's working grid and buffers.
+    //The searches are dropped when the pieces or the transposition table change
+    LookaheadSearch getWorkerSearch(){
+        LookaheadSearch search = workerSearches.get();
+        if(search==null){
+            search = createLookaheadSearch();
+            workerSearches.set(search);
+        }
+        else{
+            search.setGrid(grid);
+            search.setMetrics(searchMetrics);
         }
-        return 0;   //column is empty (return grid's "floor")
+        return search;
     }
 
 
-    /*COMMENT AFTER PLACEPIECE LOOKAHEAD*/
-    private PiecePlacement findPlacementValue(int[][] piece, int startingY, int startingX, char[][] currGrid, int pieceId){
-        for(int y=0; y<piece.length; y++){
-            for(int x=0; x<piece[0].length; x++){
-                if(piece[y][x]==1){
-                    currGrid[startingY + y][startingX + x] = '*';
-                }
+    //method to get the catalog of the current pieces (it is built once after pieces are added and shared by every search,
+    //so the searches index dense arrays instead of looking pieces up in the map)
+    PieceCatalog getPieceCatalog(){
+        if(pieceCatalog==null){
+            Tetromino[] pieces = new Tetromino[puzzlePieces.size()];
+            for(int i=0; i<pieces.length; i++){
+                pieces[i] = puzzlePieces.get(i);
             }
+            usePieceCatalog(new PieceCatalog(pieces));
+        }
+        return pieceCatalog;
+    }
+
+
+    //method to switch to a catalog of the current pieces and to its read-only piece maps, so that solvers using the same catalog share one copy of them
+    private void usePieceCatalog(PieceCatalog catalog){
+        pieceCatalog = catalog;
+        puzzlePieces = catalog.getPieces();
+        canonicalPieces = catalog.getCanonicalPieces();
+        piecesReadOnly = true;
+    }
+
+
+    //method to get the context carried over between placePiece() calls (recreated when the pieces change)
+    private SearchContext getSearchContext(){
+        if(searchContext==null){
+            searchContext = new SearchContext(getPieceCatalog().getPieceCount());
+        }
+        return searchContext;
+    }
+
+
+    //method to place a piece in the grid (clearing any full rows) and return the placement's value
+    private int commitPlacement(long placement){
+        PieceCatalog catalog = getPieceCatalog();
+        int orientation = LookaheadSearch.placementOrientation(placement);
+        int row = LookaheadSearch.placementRow(placement);
+        grid.place(catalog.getMask(orientation), catalog.getCellOffsets(orientation), row, LookaheadSearch.placementColumn(placement));
+        int numberOfRowsCleared = grid.removeFullRows(null, row, row + catalog.getHeight(orientation));   //only the rows the piece touched can be full (see BitGrid)
+        if(searchContext!=null){
+            searchContext.clearReplies();   //the replies of the previous grid do not apply to the new grid (placePiece() keeps the replies found for it)
         }
-        int numberOfRowsCleared = clearFullRows(currGrid);
+        lastRowsCleared = numberOfRowsCleared;
+        return placementValue(numberOfRowsCleared);
+    }
+
+
+    //method to calculate the value of a placement from the number of rows it cleared (50 for the first row, doubled for each additional row)
+    static int placementValue(int numberOfRowsCleared){
         int pointsEarned = 0;
         if(numberOfRowsCleared>0){
             for(int i=1; i<=numberOfRowsCleared; i++){
@@ -398,99 +821,230 @@ public class TetrisSolver{
                 pointsEarned = pointsEarned * 2;
             }
         }
-        int placementValue = pointsEarned;
-        PiecePlacement placement = new PiecePlacement(startingY, startingX, piece, pieceId, placementValue, currGrid);
-        return placement;
+        return pointsEarned;
     }
 
 
-    //method used by findPlacementValue to identify and clear a grid's full rows
-    private int clearFullRows(char[][] gridAfterPlacement){
-        int rowsCleared = 0;
-        while(findFullRow(gridAfterPlacement)!=-1){   //while the grid still has full rows
-            rowsCleared++;
-            int fullRow = findFullRow(gridAfterPlacement);   //get the position of the full row
-            for(int col=0; col<width; col++){
-                gridAfterPlacement[fullRow][col] = ' ';   //clear the full row
+    //method to compare two lookahead results: a result is better if its combination is deeper, or if it is as deep and has a higher value
+    //(a depth of -1 denotes that no combination was found)
+    static boolean isBetterLookahead(long depth, long value, long bestDepth, long bestValue){
+        if(depth==-1){
+            return false;
+        }
+        return bestDepth==-1 || depth>bestDepth || (depth==bestDepth && value>bestValue);
+    }
+
+
+    //method used by placePiece() to search the lookahead placements of the initial placements on the search threads.
+    //The search is split by initial placement, and each initial placement's search is split again by the next piece placed.
+    //Since each initial placement's result is found exactly, the best placement (and the tie breaking) is the same as in a sequential search
+    private void searchLookaheadInParallel(LookaheadSearch search, int initialPlacements, int lookahead, long[] lookaheadDepths, long[] lookaheadValues){
+        if(searchPool==null){
+            searchPool = new ForkJoinPool(searchParallelism);
+        }
+        List<LookaheadTask> lookaheadTasks = new ArrayList<>();
+        for(int i=0; i<initialPlacements; i++){
+            lookaheadTasks.add(new LookaheadTask(this, search.getPlacement(0, i), lookahead));
+        }
+        searchPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(lookaheadTasks)));
+        for(int i=0; i<initialPlacements; i++){
+            long[] lookaheadResult = lookaheadTasks.get(i).join();
+            lookaheadDepths[i] = lookaheadResult[0];
+            lookaheadValues[i] = lookaheadResult[1];
+        }
+    }
+
+
+    //method used by placePiece() to search the lookahead placements of the initial placements with branch-and-bound pruning (see LookaheadSearch's searchBounded()).
+    //The initial placements are searched in placement order, so an initial placement whose combinations were pruned can never tie with (and replace) an earlier one.
+    //the search is sequential (setSearchParallelism() does not apply)
+    //the piece's reply from the previous call (see SearchContext) is searched first. Initial placements before it win ties with it, so while they are searched
+    //the incumbent is lowered by one, and only combinations that are worse than the reply's best combination are pruned
+    private void searchLookaheadWithPruning(int pieceId, LookaheadSearch search, int initialPlacements, int lookahead, long[] lookaheadDepths, long[] lookaheadValues){
+        search.resetNodeCounts();
+        search.startBoundedSearch();
+        SearchContext context = getSearchContext();
+        int replyPlacement = -1;
+        long reply = context.getReply(pieceId);
+        for(int i=0; i<initialPlacements && reply!=-1; i++){
+            if(search.getPlacement(0, i)==reply){
+                replyPlacement = i;
+                break;
             }
-            if(fullRow==height-1){   //row filled was the top row (no need to shift other rows down)
-                continue;
+        }
+        if(replyPlacement!=-1){
+            searchInitialPlacementBounded(search, replyPlacement, lookahead, lookaheadDepths, lookaheadValues);
+            boolean hasIncumbent = search.hasIncumbent();
+            long incumbentValue = search.getIncumbentValue();
+            search.startBoundedSearch();
+            if(hasIncumbent){
+                search.seedIncumbent(incumbentValue - 1);
             }
-            //shift all remaining rows down one space in the grid
-            for(int row=fullRow; row<height; row++){
-                for(int col=0; col<width; col++){
-                    if(row!=height-1){
-                        gridAfterPlacement[row][col] = gridAfterPlacement[row+1][col];
-                    }
-                    else{
-                        gridAfterPlacement[row][col] = ' ';
-                    }
-                }
+            for(int i=0; i<replyPlacement; i++){
+                searchInitialPlacementBounded(search, i, lookahead, lookaheadDepths, lookaheadValues);
             }
+            if(hasIncumbent){
+                search.seedIncumbent(incumbentValue);
+            }
+        }
+        for(int i=replyPlacement+1; i<initialPlacements; i++){
+            searchInitialPlacementBounded(search, i, lookahead, lookaheadDepths, lookaheadValues);
         }
-        return rowsCleared;  //return the number of rows cleared (used to calculate placement values)
+        expandedNodes = search.getExpandedNodes();
+        prunedNodes = search.getPrunedNodes();
     }
 
 
-    //method used by clearFullRows to identify the position of full rows
-    private int findFullRow(char[][] gridAfterPlacement){
-        //iterate through the grid bottom-up left-to-right
-        for(int row=0; row<height; row++){
-            String rowStr = "";
-            for(int col=0; col<width; col++){
-                //add the row's column values to a string
-                rowStr += gridAfterPlacement[row][col];
-            }
-            if(rowStr.equals(checkFullRow)){   //if that string denotes a full row
-                return row;   //return the row where the full row was found
-            }
+    //method used by searchLookaheadWithPruning() to search the lookahead placements of an initial placement (recording its replies in the search context)
+    private void searchInitialPlacementBounded(LookaheadSearch search, int i, int lookahead, long[] lookaheadDepths, long[] lookaheadValues){
+        long placement = search.getPlacement(0, i);
+        int rowsCleared = search.applyPlacement(placement, 0);
+        long placementValue = placementValue(rowsCleared) * sumOfPieceFrequencies();
+        search.clearReplies();
+        lookaheadValues[i] = placementValue + search.searchBounded(lookahead, 1, placementValue);
+        lookaheadDepths[i] = search.getResultDepth();   //-1 if all of the placement's combinations were pruned
+        search.undoPlacement(placement, 0, rowsCleared);
+        getSearchContext().recordReplies(i, search);
+    }
+
+
+    //method to turn branch-and-bound pruning of the lookahead search on or off (it gives the same placements as the exhaustive search)
+    void setLookaheadPruning(boolean pruning){
+        lookaheadPruning = pruning;
+    }
+
+
+    //number of grids whose placements were searched by the last placePiece() call with pruning on (or the last placePieceWithinBudget() call)
+    long getExpandedNodeCount(){
+        return expandedNodes;
+    }
+
+
+    //number of grids that the last placePiece() call with pruning on (or the last placePieceWithinBudget() call) skipped because they could not lead
+    //to a better combination
+    long getPrunedNodeCount(){
+        return prunedNodes;
+    }
+
+
+    //method to turn collecting metrics of each placePiece() call on or off (see getLastPlacementMetrics()).
+    //when metrics are off, the searches only check that there is nowhere to collect them
+    void setMetricsEnabled(boolean enabled){
+        searchMetrics = enabled ? new SearchMetrics() : null;
+        lastCallMetered = false;
+    }
+
+
+    //method to get the metrics of the last placePiece() call (null if metrics are off or no piece was placed since they were turned on).
+    //If the call threw an exception, the metrics cover the work done before it was thrown
+    SearchMetricsSnapshot getLastPlacementMetrics(){
+        if(searchMetrics==null || !lastCallMetered){
+            return null;
         }
-        return -1;   //no full rows in the grid
+        return searchMetrics.snapshot();
     }
 
 
-    //method used throughout various methods to calculate a grid configuration's penalty based on the rules
-    //outlined in the assignment instructions
-    private int gridPenalty(char[][] currGrid){
-        int penalty = 0;
-        //check if the grid has an even number of cells per row
-        boolean gridIsEven = false;
-        if(width%2==0){
-            gridIsEven = true;
-        }
-        int center = width/2;
-        //iterate through the grid bottom-up left-to-right
-        for(int row=0; row<height; row++){
-            for(int col=0; col<width; col++){
-                if(currGrid[row][col]==' '){   //cell is empty
-                    int topRowInCol = nextRowInExistingColumn(currGrid, col) - 1;   //get the column's top filled row (the highest row above the empty cell that is filled)
-                    if(row<topRowInCol){
-                        penalty += (topRowInCol - row) * 7;   //increment the penalty counter based on the number of rows between the top filled row and the empty cell
-                    }
-                }
-                else{   //cell is filled
-                    penalty += row * 10;   //increment penalty based on how high the block is in the grid
-
-                    //increment penalty based on how far block is from center
-                    if(gridIsEven){
-                        if(col<center-1){
-                            penalty += center - col -1;
-                        }
-                        else if(col>center){
-                            penalty += col - center;
-                        }
-                    }
-                    else{
-                        if(col<center){
-                            penalty += center - col;
-                        }
-                        else if(col>center){
-                            penalty += col - center;
-                        }
-                    }
-                }
-            }
+    private void startMetrics(int lookahead){
+        if(searchMetrics!=null){
+            searchMetrics.start(lookahead);
+            lastCallMetered = true;
+        }
+    }
+
+
+    private void finishMetrics(){
+        if(searchMetrics!=null){
+            searchMetrics.finish();
+        }
+    }
+
+
+    //method to set the number of threads used to search lookahead placements in placePiece() (1 denotes a sequential search)
+    void setSearchParallelism(int threads) throws IllegalArgumentException{
+        if(threads<1){
+            throw new IllegalArgumentException("Number of search threads is less than 1 (invalid)!");
+        }
+        if(searchPool!=null){
+            searchPool.shutdown();
+            searchPool = null;   //the pool is recreated with the new number of threads on the next parallel search
         }
-        return penalty;
+        searchParallelism = threads;
+    }
+
+
+    //number of rows cleared by the last piece placed
+    int getLastRowsCleared(){
+        return lastRowsCleared;
+    }
+
+
+    //height of a column of the grid: the row above the column's topmost block (0 if the column is empty). The grid keeps every column's height
+    //up to date as pieces are placed, rows are added and rows are cleared, so this is a lookup (i.e., for drawing the grid's skyline)
+    int getColumnHeight(int col) throws IllegalArgumentException{
+        if(col<0 || col>=width){
+            throw new IllegalArgumentException("Column is outside the grid!");
+        }
+        return grid.getColumnHeight(col);
+    }
+
+
+    //height of the grid's stack: the row above the grid's topmost block (0 if the grid is empty), which is the row addPuzzleRow() fills next
+    int getStackHeight(){
+        return grid.getStackHeight();
+    }
+
+
+    int getPuzzlePieceCount(){
+        return puzzlePieces.size();
+    }
+
+    //the piece with id <pieceId> (null if there is none)
+    Tetromino getPuzzlePiece(int pieceId){
+        return puzzlePieces.get(pieceId);
+    }
+
+
+    //the solver's grid (used by the benchmarks' BenchmarkHooks, which must not modify it)
+    BitGrid getGrid(){
+        return grid;
+    }
+
+
+    //method to empty the transposition table (if it was created), so that grids searched by previous placePiece() calls are searched again
+    void clearTranspositionTable(){
+        if(transpositionTable!=null){
+            transpositionTable.clear();
+        }
+    }
+
+
+    //method to set the number of entries in the lookahead transposition table (0 turns the table off)
+    //the table keeps its entries between placePiece() calls, so grids searched in previous calls are not searched again
+    void setTranspositionTableSize(int entries) throws IllegalArgumentException{
+        if(entries<0){
+            throw new IllegalArgumentException("Transposition table size is negative (invalid)!");
+        }
+        transpositionTableSize = entries;
+        transpositionTable = null;   //the table is recreated with the new size on the next lookahead search
+        lookaheadSearch = null;
+        workerSearches = new ThreadLocal<>();
+    }
+
+
+    //method to get the sum of the relative piece frequencies (used to weigh the values of lookahead placements)
+    long sumOfPieceFrequencies(){
+        return getPieceCatalog().getSumOfFrequencies();
+    }
+
+
+    //method used throughout various methods to calculate a grid configuration's penalty based on the rules
+    //outlined in the assignment instructions:
+    //1) each block adds 10 * its row (how high the block is in the grid)
+    //2) each block adds its distance from the center column(s)
+    //3) each empty cell below the top filled row of its column adds 7 * the number of rows between the cell and that top row
+    //the grid keeps the sums of these values up to date as blocks are placed and rows are cleared, so the penalty is not recalculated cell by cell
+    static int gridPenalty(BitGrid currGrid){
+        return (int) (currGrid.getFilledRowSum() * 10 + currGrid.getCentreDistanceSum() + currGrid.getHoleDepthSum() * 7);
     }
-}
\ No newline at end of file
+}
@@ -9,6 +9,8 @@ public class Tetromino {
     private int pieceHeight;
     private int pieceWidth;
     private List<int[][]> pieceOrientations;
+    private int[][] canonicalOrientation;   //the rotation of the piece whose encoding is its canonical key
+    private String canonicalKey;   //rotation-invariant key of the piece (pieces are duplicates exactly when their keys are equal)
 
     Tetromino(String[] pieceRows, int pieceId, int relativeFrequency, int gridWidth, int gridHeight) throws IllegalArgumentException{
         pieceHeight = pieceRows.length;
@@ -41,11 +43,26 @@ public class Tetromino {
         if(pieceOrientations.isEmpty()){   //denotes that none of the rotations (including the original orientation) fit in the grid
             throw new IllegalArgumentException("Piece does not fit in grid dimensions!");
         }
+        calculateCanonicalKey(piece);
         this.pieceId = pieceId;
         this.relativeFrequency = relativeFrequency;
     }
 
 
+    //constructor used to restore a piece from a snapshot (see SolverSnapshot), which holds the piece's matrix, orientations and canonical orientation
+    //that were calculated when the piece was first added, so the piece is not validated or rotated again
+    Tetromino(int pieceId, int relativeFrequency, int[][] piece, int[][] canonicalOrientation, List<int[][]> pieceOrientations){
+        this.pieceId = pieceId;
+        this.relativeFrequency = relativeFrequency;
+        this.piece = piece;
+        pieceHeight = piece.length;
+        pieceWidth = piece[0].length;
+        this.pieceOrientations = pieceOrientations;
+        this.canonicalOrientation = canonicalOrientation;
+        canonicalKey = encodeOrientation(canonicalOrientation);
+    }
+
+
     //method to calculate the piece's maximum width which is used to equalize the piece matrix's row lengths
     //Example:
     //piece String = "*\n**\n" --> upperRowWidth=1 and lowerRowWidth=2 --> this method calculates the max width (which is 2).
@@ -98,7 +115,7 @@ public class Tetromino {
 
 
     //method to rotate piece 90 degrees
-    private int[][] rotatePiece(int[][] piece){
+    int[][] rotatePiece(int[][] piece){
         int height = piece.length;
         int width = piece[0].length;
         int[][] rotatedPiece = new int[width][height];
@@ -200,6 +217,34 @@ public class Tetromino {
     }
 
 
+    //method to calculate the piece's canonical key: the smallest encoding of its four rotations (including rotations that do not fit in the grid).
+    //the fitting orientations of two pieces are rotations of the same shapes, so two pieces share an orientation exactly when their keys are equal
+    private void calculateCanonicalKey(int[][] piece){
+        int[][] rotatedPiece = piece;
+        for(int i=0; i<4; i++){
+            String key = encodeOrientation(rotatedPiece);
+            if(canonicalKey==null || key.compareTo(canonicalKey)<0){
+                canonicalKey = key;
+                canonicalOrientation = rotatedPiece;
+            }
+            rotatedPiece = rotatePiece(rotatedPiece);
+        }
+    }
+
+
+    //method to encode an orientation as its dimensions followed by its cells row by row (i.e., piece String = "**\n *" --> "2x2:1101")
+    private String encodeOrientation(int[][] orientation){
+        StringBuilder key = new StringBuilder();
+        key.append(orientation.length).append('x').append(orientation[0].length).append(':');
+        for(int[] orientationRow: orientation){
+            for(int cell: orientationRow){
+                key.append(cell);
+            }
+        }
+        return key.toString();
+    }
+
+
     int getPieceId(){
         return pieceId;
     }
@@ -223,4 +268,12 @@ public class Tetromino {
     int getRelativeFrequency(){
         return relativeFrequency;
     }
+
+    int[][] getCanonicalOrientation(){
+        return canonicalOrientation;
+    }
+
+    String getCanonicalKey(){
+        return canonicalKey;
+    }
 }
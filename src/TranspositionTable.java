@@ -0,0 +1,130 @@
+import java.util.*;
+
+//this class is used by TetrisSolver to remember the best lookahead combination found from a grid, so that a grid reached through
+//different placement orders (i.e., placing piece A then B vs. placing piece B then A) is only searched once.
+//entries are keyed by a Zobrist hash of the grid's blocks combined with the remaining lookahead, and the table holds a fixed number of entries.
+//the Zobrist keys of the cells and lookaheads are calculated from their indices with a mixing function instead of being stored, so the table's
+//memory does not grow with the grid's height (a tall grid only stores its rows up to the stack, see BitGrid).
+//the entries are grouped in buckets of WAYS entries, and a key can only be stored in its bucket. When the bucket is full, an entry is evicted
+//using the clock (second chance) algorithm within the bucket.
+//the table is shared by the threads of a parallel lookahead search without locks: an entry is three plain array words (check, depth and value),
+//where the check is the entry's key XORed with its depth and value. A thread can read an entry while another thread overwrites it, and then
+//reads words of two different stores, but their check does not give the key that is looked up, so the torn entry is treated as a miss.
+//Since the value stored for a key never depends on which thread stored it, a search finds the same results however its threads interleave
+public class TranspositionTable {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;   //step between the inputs of consecutive keys (see mix())
+    private static final int WAYS = 4;   //entries per bucket
+
+    private int gridWidth;
+    private long cellSeed;   //seeds of the cell keys and the lookahead keys
+    private long lookaheadSeed;
+
+    private long[] checks;   //key ^ value ^ depth*GOLDEN_GAMMA of each stored entry (see entryKey())
+    private long[] depths;   //number of placements in each stored entry's best combination (-1 denotes an empty entry)
+    private long[] values;   //value of each stored entry's best combination
+    private boolean[] referenced;   //clock reference bit of each entry (set when the entry is used, cleared when the bucket's clock passes it)
+    private int buckets;
+
+    //the table holds <capacity> entries, rounded up to a whole number of buckets
+    TranspositionTable(int gridWidth, int gridHeight, int capacity) throws IllegalArgumentException{
+        if(capacity<1){
+            throw new IllegalArgumentException("Transposition table capacity is less than 1 (invalid)!");
+        }
+        this.gridWidth = gridWidth;
+        cellSeed = mix(gridWidth * 31L + gridHeight);   //fixed seeds so that hashes (and therefore searches) are reproducible
+        lookaheadSeed = mix(cellSeed);
+        buckets = (int) Math.min((capacity + (long) WAYS - 1) / WAYS, (Integer.MAX_VALUE - 8) / WAYS);   //(the largest arrays a JVM can allocate)
+        checks = new long[buckets * WAYS];
+        depths = new long[buckets * WAYS];
+        values = new long[buckets * WAYS];
+        referenced = new boolean[buckets * WAYS];
+        clear();
+    }
+
+
+    //method to calculate the key of a grid and its remaining lookahead
+    long hash(BitGrid currGrid, int remainingLookahead){
+        long key = mix(lookaheadSeed + remainingLookahead * GOLDEN_GAMMA);
+        for(int row=0; row<currGrid.getStackHeight(); row++){   //rows at or above the stack height are empty
+            long rowIndex = (long) row * gridWidth + 1;   //index of the row's first cell, counting from 1 (so no cell's key is mix(cellSeed))
+            for(int word=0; word<currGrid.getWordsPerRow(); word++){
+                long bits = currGrid.getRowWord(row, word);
+                while(bits!=0){   //visit each filled cell of the word (lowest bit first)
+                    key ^= mix(cellSeed + (rowIndex + word*64 + Long.numberOfTrailingZeros(bits)) * GOLDEN_GAMMA);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return key;
+    }
+
+
+    //method to turn a key's input into a random-looking key (the finalizer of the SplitMix64 generator, which gives distinct keys for distinct inputs)
+    private static long mix(long z){
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+
+    //method to find a stored entry. If the key is stored, its {depth, value} are copied into lookaheadResult and true is returned
+    boolean find(long key, long[] lookaheadResult){
+        int firstEntry = bucketOf(key) * WAYS;
+        for(int entry=firstEntry; entry<firstEntry + WAYS; entry++){
+            long depth = depths[entry];
+            long value = values[entry];
+            if(depth>=0 && (checks[entry] ^ value ^ depth*GOLDEN_GAMMA)==key){   //the words read belong to one store of this key
+                referenced[entry] = true;
+                lookaheadResult[0] = depth;
+                lookaheadResult[1] = value;
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    //method to store the best combination found from a grid (evicting an entry of the key's bucket if the bucket is full)
+    void store(long key, long depth, long value){
+        int firstEntry = bucketOf(key) * WAYS;
+        int storedEntry = -1;
+        for(int entry=firstEntry; entry<firstEntry + WAYS && storedEntry==-1; entry++){
+            if(depths[entry]<0 || entryKey(entry)==key){   //an empty entry, or the key's own entry (stored by another thread meanwhile)
+                storedEntry = entry;
+            }
+        }
+        //advance past recently used entries (giving each a second chance) until an entry that was not used is found
+        for(int entry=firstEntry; entry<firstEntry + WAYS && storedEntry==-1; entry++){
+            if(!referenced[entry]){
+                storedEntry = entry;
+            }
+            referenced[entry] = false;
+        }
+        if(storedEntry==-1){   //every entry was used since the bucket's last eviction
+            storedEntry = firstEntry + ((int) key & (WAYS - 1));
+        }
+        depths[storedEntry] = depth;
+        values[storedEntry] = value;
+        checks[storedEntry] = key ^ value ^ depth*GOLDEN_GAMMA;
+        referenced[storedEntry] = false;
+    }
+
+
+    //method to remove all entries (used when the stored values are no longer valid, i.e., when a new piece is added; no search may be running)
+    void clear(){
+        Arrays.fill(depths, -1);
+        Arrays.fill(referenced, false);
+    }
+
+
+    //key of a stored entry (only meaningful if the entry's words were not being written meanwhile)
+    private long entryKey(int entry){
+        return checks[entry] ^ values[entry] ^ depths[entry]*GOLDEN_GAMMA;
+    }
+
+
+    //method to find a key's bucket from the key's upper 32 bits (scaled to the number of buckets instead of taken modulo it)
+    private int bucketOf(long key){
+        return (int) (((key >>> 32) * buckets) >>> 32);
+    }
+}
@@ -0,0 +1,91 @@
+import jdk.incubator.vector.*;
+
+//this class overrides GridKernels' kernels with SIMD versions that use the jdk.incubator.vector module (it is only loaded by GridKernels' vector()
+//when the module is present). Each kernel processes as many columns (or row words) per step as the CPU's preferred vector holds, and leaves the
+//columns (or words) that do not fill a whole vector to the scalar kernel, so the results are exactly the scalar kernels' results
+public class VectorGridKernels extends GridKernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> HALF_INTS = VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));   //as many ints as LONGS has longs
+
+    VectorGridKernels(){
+    }
+
+
+    @Override
+    long columnBounds(int[] columnHeights, int fromCol, int toCol, int[] bottomProfile, int[] supportProfile, int pieceHeight, int gridHeight,
+                      int[] restingRows, int[] lowestValidRows, int[] alwaysValidRows, int[] highestValidRows){
+        IntVector lowestRows = IntVector.broadcast(INTS, gridHeight);
+        IntVector highestRows = IntVector.zero(INTS);
+        int col = fromCol;
+        for(; col + INTS.length()<=toCol; col+=INTS.length()){
+            IntVector resting = IntVector.zero(INTS);
+            IntVector lowest = IntVector.broadcast(INTS, gridHeight);
+            IntVector always = IntVector.broadcast(INTS, gridHeight);
+            IntVector highest = IntVector.zero(INTS);
+            for(int x=0; x<bottomProfile.length; x++){
+                IntVector columnHeight = IntVector.fromArray(INTS, columnHeights, col + x);
+                resting = resting.max(columnHeight.sub(bottomProfile[x]));
+                IntVector touchingRow = columnHeight.sub(pieceHeight - 1).max(0);
+                lowest = lowest.min(touchingRow);
+                if(supportProfile[x]!=-1){
+                    always = always.min(touchingRow);
+                    highest = IntVector.broadcast(INTS, gridHeight);
+                }
+                else{
+                    highest = highest.max(columnHeight);
+                }
+            }
+            resting.intoArray(restingRows, col);
+            lowest.intoArray(lowestValidRows, col);
+            always.intoArray(alwaysValidRows, col);
+            highest.intoArray(highestValidRows, col);
+            lowestRows = lowestRows.min(lowest);
+            highestRows = highestRows.max(highest);
+        }
+        long tailBounds = super.columnBounds(columnHeights, col, toCol, bottomProfile, supportProfile, pieceHeight, gridHeight,
+                restingRows, lowestValidRows, alwaysValidRows, highestValidRows);
+        int lowestRow = Math.min(lowestRows.reduceLanes(VectorOperators.MIN), (int) (tailBounds >>> 32));
+        int highestRow = Math.max(highestRows.reduceLanes(VectorOperators.MAX), (int) tailBounds);
+        return ((long) lowestRow << 32) | highestRow;
+    }
+
+
+    @Override
+    boolean isRowFull(long[] rows, int base, long[] fullRowMask, int fromWord, int toWord){
+        int word = fromWord;
+        for(; word + LONGS.length()<=toWord; word+=LONGS.length()){
+            LongVector rowWords = LongVector.fromArray(LONGS, rows, base + word);
+            if(rowWords.compare(VectorOperators.NE, LongVector.fromArray(LONGS, fullRowMask, word)).anyTrue()){
+                return false;
+            }
+        }
+        return super.isRowFull(rows, base, fullRowMask, word, toWord);
+    }
+
+
+    @Override
+    boolean isRowEmpty(long[] rows, int base, int fromWord, int toWord){
+        int word = fromWord;
+        for(; word + LONGS.length()<=toWord; word+=LONGS.length()){
+            if(LongVector.fromArray(LONGS, rows, base + word).compare(VectorOperators.NE, 0).anyTrue()){
+                return false;
+            }
+        }
+        return super.isRowEmpty(rows, base, word, toWord);
+    }
+
+
+    @Override
+    long columnHoleDepthSum(int[] columnHeights, int[] columnCounts, int fromCol, int toCol){
+        LongVector sums = LongVector.zero(LONGS);
+        int col = fromCol;
+        for(; col + LONGS.length()<=toCol; col+=LONGS.length()){
+            //the heights and counts are widened to longs, since t*(t+1)/2 does not fit in an int for grids taller than 65535 rows
+            LongVector top = ((LongVector) IntVector.fromArray(HALF_INTS, columnHeights, col).convertShape(VectorOperators.I2L, LONGS, 0)).sub(1).max(0);
+            LongVector count = (LongVector) IntVector.fromArray(HALF_INTS, columnCounts, col).convertShape(VectorOperators.I2L, LONGS, 0);
+            sums = sums.add(top.mul(top.add(1)).lanewise(VectorOperators.ASHR, 1).sub(count.mul(top)));   //a column with t <= 0 adds 0
+        }
+        return sums.reduceLanes(VectorOperators.ADD) + super.columnHoleDepthSum(columnHeights, columnCounts, col, toCol);
+    }
+}